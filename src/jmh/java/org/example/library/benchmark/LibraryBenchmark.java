@@ -0,0 +1,82 @@
+package org.example.library.benchmark;
+import org.example.library.dto.CommentRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки горячих путей сервисного слоя и страницы списка книг.
+ *
+ * <p>Запуск: {@code mvn -Pjmh verify}. По умолчанию включен профилировщик
+ * {@code -prof gc}: кроме ops/s выводится скорость выделения памяти
+ * ({@code gc.alloc.rate.norm} - байт на операцию). Аргументы JMH передаются
+ * свойством {@code jmh.args}, например
+ * {@code mvn -Pjmh verify -Djmh.args="-prof gc -p books=10000 LibraryBenchmark.bookFindAll"}.</p>
+ *
+ * <p>{@code findByAuthorId} и {@code findByBookId} кэшируются в сервисном слое и кэшем
+ * запросов Hibernate. Идентификаторы перебираются по кругу, поэтому доля попаданий
+ * зависит от размера каталога и длительности итераций; {@code cache=none} отключает
+ * только кэш сервисного слоя.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LibraryBenchmark {
+
+    /**
+     * Номер следующего автора или книги для каждого потока бенчмарка.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int next(int bound) {
+            next = next + 1 == bound ? 0 : next + 1;
+            return next;
+        }
+    }
+
+    @Benchmark
+    public Object bookFindAll(LibraryState state) {
+        return state.bookService.findAll();
+    }
+
+    @Benchmark
+    public Object bookFindByAuthorId(LibraryState state, Cursor cursor) {
+        return state.bookService.findByAuthorId(state.authorIds[cursor.next(state.authorIds.length)]);
+    }
+
+    @Benchmark
+    public Object commentFindByBookId(LibraryState state, Cursor cursor) {
+        return state.commentService.findByBookId(state.bookIds[cursor.next(state.bookIds.length)]);
+    }
+
+    @Benchmark
+    public Object commentSave(LibraryState state, Cursor cursor) {
+        long bookId = state.bookIds[cursor.next(state.bookIds.length)];
+        return state.commentService.save(new CommentRequest("Читатель", 1 + cursor.next % 5, bookId).toEntity());
+    }
+
+    /**
+     * Полная обработка {@code GET /books}: контроллер, запросы страницы и фасетов,
+     * отрисовка шаблона Thymeleaf (без сети и сжатия ответа).
+     */
+    @Benchmark
+    public String bookListPage(LibraryState state) throws Exception {
+        MvcResult result = state.mockMvc.perform(MockMvcRequestBuilders.get("/books").accept(MediaType.TEXT_HTML))
+                .andReturn();
+        return result.getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.library.benchmark;
+import org.example.library.Main;
+import org.example.library.dto.AuthorRequest;
+import org.example.library.dto.BookRequest;
+import org.example.library.dto.CommentRequest;
+import org.example.library.model.Author;
+import org.example.library.model.Book;
+import org.example.library.model.Comment;
+import org.example.library.service.AuthorService;
+import org.example.library.service.BookService;
+import org.example.library.service.CommentService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Запущенное приложение с заполненным каталогом для бенчмарков.
+ *
+ * <p>Каждый форк JMH поднимает собственный контекст Spring с базой H2 в памяти
+ * и заполняет ее через сервисы пакетами по {@value #BATCH} записей.
+ * Размер каталога задается параметрами, например {@code -p books=10000}.</p>
+ */
+@State(Scope.Benchmark)
+public class LibraryState {
+    private static final int BATCH = 1000;
+    private static final String[] GENRES = {"Роман", "Повесть", "Поэзия", "Драма", "Фантастика", "Детектив"};
+
+    /**
+     * Количество книг в каталоге.
+     */
+    @Param("1000")
+    public int books;
+
+    /**
+     * Количество книг одного автора.
+     */
+    @Param("10")
+    public int booksPerAuthor;
+
+    /**
+     * Количество комментариев к каждой книге.
+     */
+    @Param("5")
+    public int commentsPerBook;
+
+    /**
+     * Тип кэша сервисного слоя: {@code caffeine} или {@code none}.
+     */
+    @Param({"caffeine", "none"})
+    public String cache;
+
+    ConfigurableApplicationContext context;
+    BookService bookService;
+    CommentService commentService;
+    MockMvc mockMvc;
+    long[] authorIds;
+    long[] bookIds;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(Main.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "spring.thymeleaf.cache=true",
+                        "spring.cache.type=" + cache,
+                        "logging.level.root=WARN",
+                        "logging.level.org.example.library=WARN")
+                .run();
+        bookService = context.getBean(BookService.class);
+        commentService = context.getBean(CommentService.class);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        seed(context.getBean(AuthorService.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    private void seed(AuthorService authorService) {
+        int authors = Math.max(1, books / booksPerAuthor);
+        List<Author> authorBatch = new ArrayList<>();
+        authorIds = new long[authors];
+        for (int i = 0; i < authors; i++) {
+            authorBatch.add(new AuthorRequest("Автор " + letters(i)).toEntity());
+            if (authorBatch.size() == BATCH || i == authors - 1) {
+                int first = i - authorBatch.size() + 1;
+                List<Author> saved = authorService.saveAll(authorBatch);
+                for (int j = 0; j < saved.size(); j++) {
+                    authorIds[first + j] = saved.get(j).getId();
+                }
+                authorBatch = new ArrayList<>();
+            }
+        }
+        List<Book> bookBatch = new ArrayList<>();
+        bookIds = new long[books];
+        for (int i = 0; i < books; i++) {
+            bookBatch.add(new BookRequest("Книга " + letters(i), GENRES[i % GENRES.length],
+                    authorIds[i % authors]).toEntity());
+            if (bookBatch.size() == BATCH || i == books - 1) {
+                int first = i - bookBatch.size() + 1;
+                List<Book> saved = bookService.saveAll(bookBatch);
+                for (int j = 0; j < saved.size(); j++) {
+                    bookIds[first + j] = saved.get(j).getId();
+                }
+                bookBatch = new ArrayList<>();
+            }
+        }
+        List<Comment> commentBatch = new ArrayList<>();
+        for (int i = 0; i < books; i++) {
+            for (int j = 0; j < commentsPerBook; j++) {
+                commentBatch.add(new CommentRequest("Читатель " + letters(j), 1 + (i + j) % 5, bookIds[i]).toEntity());
+                if (commentBatch.size() == BATCH) {
+                    commentService.saveAll(commentBatch);
+                    commentBatch = new ArrayList<>();
+                }
+            }
+        }
+        if (!commentBatch.isEmpty()) {
+            commentService.saveAll(commentBatch);
+        }
+    }
+
+    /**
+     * Записывает номер буквами: имена авторов и читателей не могут содержать цифр.
+     */
+    static String letters(int n) {
+        StringBuilder name = new StringBuilder();
+        do {
+            name.append((char) ('а' + n % 26));
+            n /= 26;
+        } while (n > 0);
+        return name.toString();
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.library.loadtest;
+import java.util.Random;
+
+/**
+ * Генератор правдоподобных имен для синтетического каталога.
+ *
+ * <p>Имена авторов и читателей состоят только из букв, пробелов и дефисов
+ * (как требуют ограничения {@code @Pattern} сущностей), жанры - из букв и пробелов.
+ * Имена авторов уникальны: номер автора однозначно раскладывается на имя, фамилию
+ * и, для больших каталогов, вторую часть двойной фамилии. Остальные значения
+ * выбираются генератором случайных чисел с заданным зерном, поэтому каталог
+ * воспроизводим.</p>
+ */
+final class CatalogGenerator {
+    private static final String[] MALE_FIRST_NAMES = {"Александр", "Алексей", "Андрей", "Борис", "Василий",
+            "Виктор", "Владимир", "Георгий", "Дмитрий", "Евгений", "Иван", "Игорь", "Константин", "Лев",
+            "Максим", "Михаил", "Николай", "Олег", "Павел", "Петр", "Роман", "Сергей", "Степан", "Федор", "Юрий"};
+    private static final String[] MALE_LAST_NAMES = {"Иванов", "Смирнов", "Кузнецов", "Попов", "Соколов",
+            "Лебедев", "Козлов", "Новиков", "Морозов", "Волков", "Соловьев", "Васильев", "Зайцев", "Павлов",
+            "Семенов", "Голубев", "Виноградов", "Богданов", "Воробьев", "Федоров", "Михайлов", "Беляев",
+            "Тарасов", "Белов", "Комаров"};
+    private static final String[] FEMALE_FIRST_NAMES = {"Анна", "Мария", "Елена", "Ольга", "Наталья",
+            "Татьяна", "Ирина", "Светлана", "Екатерина", "Юлия", "Анастасия", "Дарья", "Ксения", "Вера",
+            "Любовь", "Надежда", "Полина", "Софья", "Алиса", "Марина", "Галина", "Людмила", "Валентина",
+            "Зинаида", "Лидия"};
+    private static final String[] FEMALE_LAST_NAMES = {"Иванова", "Смирнова", "Кузнецова", "Попова",
+            "Соколова", "Лебедева", "Козлова", "Новикова", "Морозова", "Волкова", "Соловьева", "Васильева",
+            "Зайцева", "Павлова", "Семенова", "Голубева", "Виноградова", "Богданова", "Воробьева", "Федорова",
+            "Михайлова", "Беляева", "Тарасова", "Белова", "Комарова"};
+    private static final String[] LATIN_FIRST_NAMES = {"James", "John", "Robert", "Michael", "William",
+            "David", "Richard", "Thomas", "Charles", "George", "Mary", "Patricia", "Jennifer", "Linda",
+            "Elizabeth", "Barbara", "Susan", "Jessica", "Sarah", "Karen", "Emily", "Charlotte", "Oliver",
+            "Henry", "Agatha"};
+    private static final String[] LATIN_LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones",
+            "Miller", "Davis", "Wilson", "Anderson", "Taylor", "Moore", "Jackson", "Martin", "Thompson",
+            "White", "Harris", "Clark", "Lewis", "Walker", "Hall", "Young", "King", "Wright", "Scott", "Green"};
+    private static final String[][][] NAME_GROUPS = {
+            {MALE_FIRST_NAMES, MALE_LAST_NAMES},
+            {FEMALE_FIRST_NAMES, FEMALE_LAST_NAMES},
+            {LATIN_FIRST_NAMES, LATIN_LAST_NAMES}};
+
+    private static final String[] RUSSIAN_TITLE_WORDS = {"Война", "Мир", "Тишина", "Буря", "Дорога", "Память",
+            "Ночь", "Звезда", "Река", "Город", "Сад", "Дом", "Море", "Ветер", "Свет", "Тень", "Зима", "Осень",
+            "Степь", "Огонь", "Пепел", "Надежда", "Судьба", "Правда"};
+    private static final String[] LATIN_TITLE_ADJECTIVES = {"Silent", "Last", "Hidden", "Broken", "Golden",
+            "Distant", "Forgotten", "Burning", "Endless", "Quiet", "Secret", "Lonely"};
+    private static final String[] LATIN_TITLE_NOUNS = {"River", "City", "Garden", "House", "Road", "Winter",
+            "Storm", "Harbor", "Kingdom", "Letter", "Promise", "Shadow"};
+    private static final String[] GENRES = {"Роман", "Повесть", "Рассказ", "Поэзия", "Драма", "Фантастика",
+            "Детектив", "Приключения", "Science Fiction", "Mystery", "Fantasy", "Historical Fiction"};
+
+    private final Random random;
+
+    CatalogGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Возвращает уникальное имя автора с указанным номером.
+     *
+     * @param index номер автора (с нуля)
+     * @return имя и фамилия, при необходимости двойная
+     */
+    static String authorName(int index) {
+        String[][] group = NAME_GROUPS[index % NAME_GROUPS.length];
+        String[] firstNames = group[0];
+        String[] lastNames = group[1];
+        int n = index / NAME_GROUPS.length;
+        String first = firstNames[n % firstNames.length];
+        n /= firstNames.length;
+        StringBuilder last = new StringBuilder(lastNames[n % lastNames.length]);
+        n /= lastNames.length;
+        // Биективная запись оставшейся части номера: каждый номер дает свою двойную фамилию
+        while (n > 0) {
+            n--;
+            last.append('-').append(lastNames[n % lastNames.length]);
+            n /= lastNames.length;
+        }
+        return first + " " + last;
+    }
+
+    /**
+     * Возвращает случайное имя читателя.
+     *
+     * @return имя и фамилия
+     */
+    String readerName() {
+        String[][] group = NAME_GROUPS[random.nextInt(NAME_GROUPS.length)];
+        return pick(group[0]) + " " + pick(group[1]);
+    }
+
+    /**
+     * Возвращает случайное название книги в стиле "Война и мир" или "The Silent River".
+     *
+     * @return название книги
+     */
+    String bookTitle() {
+        if (random.nextInt(3) == 0) {
+            return "The " + pick(LATIN_TITLE_ADJECTIVES) + " " + pick(LATIN_TITLE_NOUNS);
+        }
+        String first = pick(RUSSIAN_TITLE_WORDS);
+        String second = pick(RUSSIAN_TITLE_WORDS);
+        return first.equals(second) ? first : first + " и " + second.toLowerCase();
+    }
+
+    /**
+     * Возвращает случайный жанр.
+     *
+     * @return жанр
+     */
+    String genre() {
+        return pick(GENRES);
+    }
+
+    /**
+     * Возвращает случайную оценку, смещенную к высоким (как в реальных отзывах).
+     *
+     * @return оценка от 1 до 5
+     */
+    int rating() {
+        int roll = random.nextInt(100);
+        return roll < 5 ? 1 : roll < 12 ? 2 : roll < 30 ? 3 : roll < 65 ? 4 : 5;
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
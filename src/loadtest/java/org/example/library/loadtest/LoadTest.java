@@ -0,0 +1,407 @@
+package org.example.library.loadtest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочный тест HTML-страниц библиотеки против локально запущенного приложения.
+ *
+ * <p>Запуск: {@code mvn -Ploadtest verify -Dloadtest.args="--rate=100 --duration=60"}
+ * (приложение должно быть уже запущено). Тест:</p>
+ * <ol>
+ *   <li>заполняет каталог через пакетные эндпоинты JSON API
+ *   ({@code --authors}, {@code --books}, {@code --comments}; {@code --seed-data=false} -
+ *   использовать уже существующие данные);</li>
+ *   <li>отправляет запросы по открытой модели: моменты отправки - пуассоновский поток
+ *   с интенсивностью {@code --rate} запросов в секунду, независимо от того, успел ли сервер
+ *   ответить на предыдущие. Задержка отсчитывается от запланированного момента, поэтому
+ *   очередь на стороне клиента не скрывает медленные ответы;</li>
+ *   <li>выводит для каждого эндпоинта пропускную способность и перцентили задержки
+ *   (HdrHistogram) и сохраняет полные распределения в {@code --out}/*.hgrm.</li>
+ * </ol>
+ * Доли операций задаются параметром {@code --mix}, например
+ * {@code --mix=books=50,book=20,comment-add=30}. Все случайные значения зависят
+ * только от {@code --seed}, поэтому прогоны воспроизводимы.
+ */
+public final class LoadTest {
+    private static final int BATCH = 1000;
+    private static final int PAGE_SIZE = 20;
+    private static final String DEFAULT_MIX =
+            "books=35,book=15,authors=15,comments=15,comment-add=12,book-add=5,author-add=3";
+
+    /**
+     * Операции нагрузочного теста.
+     */
+    enum Operation {
+        BOOK_LIST("books"),
+        BOOK_VIEW("book"),
+        AUTHOR_LIST("authors"),
+        COMMENT_LIST("comments"),
+        COMMENT_ADD("comment-add"),
+        BOOK_ADD("book-add"),
+        AUTHOR_ADD("author-add");
+
+        final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        static Operation of(String key) {
+            for (Operation operation : values()) {
+                if (operation.key.equals(key)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Unknown operation '" + key + "' in --mix");
+        }
+    }
+
+    /**
+     * Статистика одной операции.
+     */
+    static final class Stats {
+        final Histogram latencyMicros = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(5), 3);
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+    }
+
+    private final Map<String, String> options;
+    private final String baseUrl;
+    private final HttpClient http;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final CatalogGenerator generator;
+    private final Random random;
+    private final List<Long> authorIds = new ArrayList<>();
+    private final List<Long> bookIds = new ArrayList<>();
+    private int nextAuthor;
+
+    LoadTest(Map<String, String> options) {
+        this.options = options;
+        this.baseUrl = option("base-url", "http://localhost:8080");
+        long seed = Long.parseLong(option("seed", "42"));
+        this.generator = new CatalogGenerator(seed);
+        this.random = new Random(seed);
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got '" + arg + "'");
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        LoadTest test = new LoadTest(options);
+        if (Boolean.parseBoolean(test.option("seed-data", "true"))) {
+            test.seed(Integer.parseInt(test.option("authors", "200")),
+                    Integer.parseInt(test.option("books", "2000")),
+                    Integer.parseInt(test.option("comments", "10000")));
+        } else {
+            test.loadExisting();
+        }
+        Map<Operation, Stats> stats = test.run(Double.parseDouble(test.option("rate", "50")),
+                Integer.parseInt(test.option("duration", "60")),
+                Integer.parseInt(test.option("warmup", "10")));
+        test.report(stats, Integer.parseInt(test.option("duration", "60")), System.out);
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    /**
+     * Заполняет каталог через {@code POST /api/.../batch}.
+     */
+    void seed(int authors, int books, int comments) throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        List<Map<String, Object>> batch = new ArrayList<>();
+        for (int i = 0; i < authors; i++) {
+            batch.add(Map.of("name", CatalogGenerator.authorName(nextAuthor++)));
+            if (batch.size() == BATCH || i == authors - 1) {
+                authorIds.addAll(postBatch("/api/authors/batch", batch));
+                batch.clear();
+            }
+        }
+        for (int i = 0; i < books; i++) {
+            batch.add(Map.of("name", generator.bookTitle(), "genre", generator.genre(), "authorId", randomId(authorIds)));
+            if (batch.size() == BATCH || i == books - 1) {
+                bookIds.addAll(postBatch("/api/books/batch", batch));
+                batch.clear();
+            }
+        }
+        for (int i = 0; i < comments; i++) {
+            batch.add(Map.of("reader", generator.readerName(), "rating", generator.rating(), "bookId", popularId(bookIds)));
+            if (batch.size() == BATCH || i == comments - 1) {
+                postBatch("/api/comments/batch", batch);
+                batch.clear();
+            }
+        }
+        System.out.printf("Каталог заполнен: %d авторов, %d книг, %d комментариев за %.1f с%n",
+                authors, books, comments, (System.nanoTime() - started) / 1e9);
+    }
+
+    /**
+     * Загружает идентификаторы существующих авторов и книг через {@code GET /api/...}.
+     */
+    void loadExisting() throws IOException, InterruptedException {
+        readIds("/api/authors", authorIds);
+        readIds("/api/books", bookIds);
+        // Новые авторы продолжают последовательность имен, начатую при заполнении
+        nextAuthor = authorIds.size();
+        System.out.printf("Используется существующий каталог: %d авторов, %d книг%n", authorIds.size(), bookIds.size());
+    }
+
+    private List<Long> postBatch(String path, List<Map<String, Object>> batch) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(batch)))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("POST " + path + " failed with " + response.statusCode() + ": " + response.body());
+        }
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode node : mapper.readTree(response.body())) {
+            ids.add(node.get("id").asLong());
+        }
+        return ids;
+    }
+
+    private void readIds(String path, List<Long> ids) throws IOException, InterruptedException {
+        for (int page = 0; ; page++) {
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(
+                    URI.create(baseUrl + path + "?size=100&page=" + page)).build(), HttpResponse.BodyHandlers.ofString());
+            JsonNode body = mapper.readTree(response.body());
+            for (JsonNode node : body.get("content")) {
+                ids.add(node.get("id").asLong());
+            }
+            if (!body.get("hasNext").asBoolean()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Отправляет запросы с заданной интенсивностью и собирает статистику.
+     *
+     * @param rate запросов в секунду
+     * @param seconds длительность измерения
+     * @param warmupSeconds длительность прогрева (не входит в статистику)
+     * @return статистика по операциям
+     */
+    Map<Operation, Stats> run(double rate, int seconds, int warmupSeconds) throws InterruptedException {
+        if (bookIds.isEmpty() || authorIds.isEmpty()) {
+            throw new IllegalStateException("The catalog is empty: seed it or start the app with data");
+        }
+        Operation[] operations = Operation.values();
+        double[] cumulative = mix(option("mix", DEFAULT_MIX), operations);
+        Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : operations) {
+            stats.put(operation, new Stats());
+        }
+        int maxInFlight = Integer.parseInt(option("max-in-flight", "1000"));
+        AtomicInteger inFlight = new AtomicInteger();
+
+        System.out.printf("Нагрузка: %.1f запросов/с, прогрев %d с, измерение %d с%n", rate, warmupSeconds, seconds);
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+        long intended = start;
+        while (true) {
+            // Экспоненциальные интервалы между запросами дают пуассоновский поток
+            intended += (long) (-Math.log(1 - random.nextDouble()) / rate * 1e9);
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = pick(operations, cumulative);
+            HttpRequest request = request(operation);
+            boolean measured = intended >= measureFrom;
+            Stats operationStats = stats.get(operation);
+            if (inFlight.get() >= maxInFlight) {
+                if (measured) {
+                    operationStats.dropped.incrementAndGet();
+                }
+                continue;
+            }
+            inFlight.incrementAndGet();
+            long scheduled = intended;
+            http.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                inFlight.decrementAndGet();
+                if (!measured) {
+                    return;
+                }
+                operationStats.latencyMicros.recordValue(
+                        Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled),
+                                operationStats.latencyMicros.getHighestTrackableValue()));
+                if (failure != null || response.statusCode() >= 400) {
+                    operationStats.errors.incrementAndGet();
+                }
+            });
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        return stats;
+    }
+
+    private HttpRequest request(Operation operation) {
+        return switch (operation) {
+            case BOOK_LIST -> get("/books?page=" + page(bookIds.size()));
+            case BOOK_VIEW -> get("/books/" + popularId(bookIds));
+            case AUTHOR_LIST -> get("/authors?page=" + page(authorIds.size()));
+            case COMMENT_LIST -> get("/comments?page=" + page(bookIds.size()));
+            case COMMENT_ADD -> post("/comments/add", Map.of("reader", generator.readerName(),
+                    "rating", String.valueOf(generator.rating()), "book.id", String.valueOf(popularId(bookIds))));
+            case BOOK_ADD -> post("/books/add", Map.of("name", generator.bookTitle(), "genre", generator.genre(),
+                    "author.id", String.valueOf(randomId(authorIds))));
+            case AUTHOR_ADD -> post("/authors/add", Map.of("name", CatalogGenerator.authorName(nextAuthor++)));
+        };
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofMinutes(1)).build();
+    }
+
+    private HttpRequest post(String path, Map<String, String> form) {
+        StringBuilder body = new StringBuilder();
+        form.forEach((name, value) -> body.append(body.isEmpty() ? "" : "&")
+                .append(URLEncoder.encode(name, StandardCharsets.UTF_8)).append('=')
+                .append(URLEncoder.encode(value, StandardCharsets.UTF_8)));
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofMinutes(1))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+    }
+
+    /**
+     * Номер страницы списка: чаще первые страницы, иногда любая.
+     */
+    private int page(int rows) {
+        int pages = Math.max(1, (rows + PAGE_SIZE - 1) / PAGE_SIZE);
+        return random.nextInt(5) == 0 ? random.nextInt(pages) : random.nextInt(Math.min(5, pages));
+    }
+
+    private long randomId(List<Long> ids) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    /**
+     * Идентификатор со смещением к началу списка: небольшая часть книг получает
+     * большую часть просмотров и отзывов.
+     */
+    private long popularId(List<Long> ids) {
+        double r = random.nextDouble();
+        return ids.get((int) (r * r * ids.size()));
+    }
+
+    private static double[] mix(String mix, Operation[] operations) {
+        double[] weights = new double[operations.length];
+        for (String part : mix.split(",")) {
+            String[] keyValue = part.split("=");
+            weights[Operation.of(keyValue[0].trim()).ordinal()] = Double.parseDouble(keyValue[1]);
+        }
+        double[] cumulative = new double[operations.length];
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            cumulative[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("--mix must contain a positive weight");
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+
+    private Operation pick(Operation[] operations, double[] cumulative) {
+        double r = random.nextDouble();
+        for (int i = 0; i < cumulative.length; i++) {
+            if (r < cumulative[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    /**
+     * Выводит таблицу результатов и сохраняет распределения задержек в файлы {@code .hgrm}.
+     */
+    void report(Map<Operation, Stats> stats, int seconds, PrintStream out) throws IOException {
+        Path dir = Path.of(option("out", "target/loadtest"));
+        Files.createDirectories(dir);
+        printHeader(out, "endpoint");
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            Histogram histogram = entry.getValue().latencyMicros;
+            if (histogram.getTotalCount() == 0 && entry.getValue().dropped.get() == 0) {
+                continue;
+            }
+            printRow(out, entry.getKey().key, histogram, entry.getValue().errors.get(), entry.getValue().dropped.get(), seconds);
+            try (PrintStream file = new PrintStream(Files.newOutputStream(dir.resolve(entry.getKey().key + ".hgrm")))) {
+                histogram.outputPercentileDistribution(file, 1000.0);
+            }
+        }
+        Stats total = total(stats);
+        printRow(out, "total", total.latencyMicros, total.errors.get(), total.dropped.get(), seconds);
+        out.printf("%nРаспределения задержек (мс): %s/*.hgrm%n", dir);
+    }
+
+    /**
+     * Суммирует статистику всех операций.
+     */
+    static Stats total(Map<Operation, Stats> stats) {
+        Stats total = new Stats();
+        for (Stats operationStats : stats.values()) {
+            total.latencyMicros.add(operationStats.latencyMicros);
+            total.errors.addAndGet(operationStats.errors.get());
+            total.dropped.addAndGet(operationStats.dropped.get());
+        }
+        return total;
+    }
+
+    static void printHeader(PrintStream out, String name) {
+        out.printf("%n%-12s %8s %7s %8s %9s %9s %9s %9s %9s %9s%n", name, "count", "errors", "dropped",
+                "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+    }
+
+    static void printRow(PrintStream out, String name, Histogram histogram, long errors, long dropped, int seconds) {
+        out.printf("%-12s %8d %7d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, histogram.getTotalCount(),
+                errors, dropped, histogram.getTotalCount() / (double) seconds,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.library.loadtest;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение пропускной способности и задержек приложения на платформенных
+ * и виртуальных потоках.
+ *
+ * <p>Запуск (нужна Java 21):
+ * {@code mvn -Pjava21,loadtest verify -DskipTests -Dloadtest.main=org.example.library.loadtest.ThreadModelComparison
+ * -Dloadtest.args="--rate=800 --duration=60"}.
+ * Для каждого режима из {@code --modes} собранный jar приложения запускается отдельным
+ * процессом на свободном порту с пустой базой в памяти, заполняется и нагружается
+ * {@link LoadTest} с одними и теми же параметрами и {@code --seed}, затем останавливается.
+ * Остальные параметры передаются {@link LoadTest} без изменений, {@code --app-args} -
+ * всем экземплярам приложения (через пробел).</p>
+ *
+ * <p>Режимы: {@code platform} - пул потоков Tomcat, {@code virtual} - профиль
+ * {@code virtual}, {@code virtual-gated} - профиль {@code virtual} с ограничением
+ * одновременных обращений к базе размером пула соединений (см. {@code JdbcConcurrencyGate}).
+ * Результаты каждого режима и журнал приложения сохраняются в {@code --out}/режим.</p>
+ */
+public final class ThreadModelComparison {
+    private static final String DEFAULT_MODES = "platform,virtual";
+
+    /**
+     * Аргументы приложения по режиму.
+     */
+    private static final Map<String, List<String>> MODES = Map.of(
+            "platform", List.of(),
+            "virtual", List.of("--spring.profiles.active=virtual"),
+            "virtual-gated", List.of("--spring.profiles.active=virtual",
+                    "--library.datasource.max-concurrent-connections=10"));
+
+    private ThreadModelComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got '" + arg + "'");
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        String jar = options.getOrDefault("app-jar", System.getProperty("loadtest.app-jar"));
+        if (jar == null || !Files.isRegularFile(Path.of(jar))) {
+            throw new IllegalStateException("Application jar not found: " + jar + " (build it with mvn package)");
+        }
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads need Java 21, running on " + Runtime.version());
+        }
+        Path out = Path.of(options.getOrDefault("out", "target/loadtest"));
+        int seconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+
+        Map<String, LoadTest.Stats> results = new LinkedHashMap<>();
+        for (String mode : options.getOrDefault("modes", DEFAULT_MODES).split(",")) {
+            List<String> modeArgs = MODES.get(mode.trim());
+            if (modeArgs == null) {
+                throw new IllegalArgumentException("Unknown mode '" + mode + "' in --modes, expected one of " + MODES.keySet());
+            }
+            System.out.printf("%n===== %s =====%n", mode);
+            results.put(mode.trim(), run(Path.of(jar), modeArgs, options, out.resolve(mode.trim())));
+        }
+
+        PrintStream summary = System.out;
+        LoadTest.printHeader(summary, "mode");
+        results.forEach((mode, stats) -> LoadTest.printRow(summary, mode, stats.latencyMicros,
+                stats.errors.get(), stats.dropped.get(), seconds));
+    }
+
+    /**
+     * Запускает приложение в одном режиме, нагружает его и останавливает.
+     */
+    private static LoadTest.Stats run(Path jar, List<String> modeArgs, Map<String, String> options, Path out)
+            throws Exception {
+        Files.createDirectories(out);
+        int port = freePort();
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-jar", jar.toString(), "--server.port=" + port));
+        command.addAll(modeArgs);
+        String appArgs = options.getOrDefault("app-args", "").trim();
+        if (!appArgs.isEmpty()) {
+            command.addAll(List.of(appArgs.split("\\s+")));
+        }
+        Process app = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(out.resolve("app.log").toFile())
+                .start();
+        try {
+            String baseUrl = "http://localhost:" + port;
+            awaitStarted(app, baseUrl);
+            Map<String, String> testOptions = new LinkedHashMap<>(options);
+            testOptions.put("base-url", baseUrl);
+            testOptions.put("out", out.toString());
+            LoadTest test = new LoadTest(testOptions);
+            test.seed(Integer.parseInt(testOptions.getOrDefault("authors", "200")),
+                    Integer.parseInt(testOptions.getOrDefault("books", "2000")),
+                    Integer.parseInt(testOptions.getOrDefault("comments", "10000")));
+            int seconds = Integer.parseInt(testOptions.getOrDefault("duration", "60"));
+            Map<LoadTest.Operation, LoadTest.Stats> stats = test.run(
+                    Double.parseDouble(testOptions.getOrDefault("rate", "50")), seconds,
+                    Integer.parseInt(testOptions.getOrDefault("warmup", "10")));
+            test.report(stats, seconds, System.out);
+            return LoadTest.total(stats);
+        } finally {
+            app.destroy();
+            if (!app.waitFor(30, TimeUnit.SECONDS)) {
+                app.destroyForcibly();
+            }
+        }
+    }
+
+    private static void awaitStarted(Process app, String baseUrl) throws IOException, InterruptedException {
+        HttpClient http = HttpClient.newHttpClient();
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health"))
+                .timeout(Duration.ofSeconds(5)).build();
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (System.nanoTime() < deadline) {
+            if (!app.isAlive()) {
+                throw new IllegalStateException("Application exited with code " + app.exitValue() + ", see app.log");
+            }
+            try {
+                if (http.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Еще не слушает порт
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("Application did not start within 2 minutes, see app.log");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package org.example.library;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 /**
  * Главный класс Spring Boot приложения.
  * Точка входа для запуска всего приложения.
@@ -9,8 +11,12 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * запускает встроенный веб-сервер и настраивает автоматическую конфигурацию.</p>
  * SpringBootApplication - помечает класс как конфигурационный, настраивает приложение
  * на основе зависимостей, настраивает базу данных, шаблонизатор, регистрирует все компоненты
+ * EnableScheduling - включает выполнение методов, помеченных {@code @Scheduled} (пересчет рейтингов)
+ * EnableCaching - включает кэширование результатов методов, помеченных {@code @Cacheable}
  */
 @SpringBootApplication
+@EnableCaching
+@EnableScheduling
 public class Main {
     public static void main(String[] args) {
         SpringApplication.run(Main.class, args);
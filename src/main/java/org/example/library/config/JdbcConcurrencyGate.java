@@ -0,0 +1,53 @@
+package org.example.library.config;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import javax.sql.DataSource;
+
+/**
+ * Ограничение одновременных обращений к базе данных.
+ *
+ * <p>С виртуальными потоками ({@code spring.threads.virtual.enabled=true}) количество
+ * одновременно обрабатываемых запросов больше не ограничено пулом потоков Tomcat, и все они
+ * сразу обращаются к пулу соединений. Компонент оборачивает источник данных в
+ * {@link GatedDataSource}: лишние потоки ждут разрешения семафора (виртуальный поток при этом
+ * освобождает поток-носитель), а при превышении времени ожидания получают
+ * {@link java.sql.SQLTransientConnectionException}.</p>
+ *
+ * <p>Включается свойством {@code library.datasource.max-concurrent-connections}; по умолчанию
+ * выключено, в том числе в профиле {@code virtual}. Ограничение имеет смысл только меньше
+ * размера пула соединений - например, чтобы запросы оставляли соединения фоновым задачам.
+ * Равное пулу оно лишь дублирует ожидание соединения в самом пуле.</p>
+ */
+@Component
+@ConditionalOnProperty("library.datasource.max-concurrent-connections")
+public class JdbcConcurrencyGate implements BeanPostProcessor {
+
+    /**
+     * Максимальное количество одновременно выданных соединений.
+     */
+    private final int maxConcurrent;
+
+    /**
+     * Максимальное ожидание соединения в миллисекундах.
+     */
+    private final long timeoutMillis;
+
+    public JdbcConcurrencyGate(@Value("${library.datasource.max-concurrent-connections}") int maxConcurrent,
+                               @Value("${library.datasource.acquire-timeout-ms:30000}") long timeoutMillis) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("library.datasource.max-concurrent-connections должно быть положительным");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof GatedDataSource)) {
+            return new GatedDataSource(dataSource, maxConcurrent, timeoutMillis);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.library.config;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+import java.util.Map;
+
+/**
+ * Счетчик SQL-запросов, подготовленных Hibernate в текущем потоке.
+ *
+ * <p>Регистрируется в Hibernate как {@link StatementInspector} и считает каждый
+ * подготовленный оператор (пакетная вставка считается одним оператором).
+ * Общая статистика Hibernate накапливается по всей фабрике сессий и не позволяет
+ * отделить один HTTP-запрос от другого, поэтому счет ведется по потоку
+ * (см. {@link SqlStatementMetricsFilter}). Запросы {@code JdbcTemplate} не учитываются.</p>
+ */
+@Component
+public class SqlStatementCounter implements StatementInspector, HibernatePropertiesCustomizer {
+
+    /**
+     * Количество операторов с начала отсчета в текущем потоке.
+     */
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    /**
+     * Начинает отсчет операторов в текущем потоке.
+     */
+    void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    /**
+     * Возвращает количество операторов с начала отсчета и завершает отсчет.
+     *
+     * @return количество подготовленных операторов
+     */
+    int finish() {
+        int count = COUNT.get()[0];
+        COUNT.remove();
+        return count;
+    }
+}
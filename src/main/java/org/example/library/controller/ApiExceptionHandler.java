@@ -0,0 +1,33 @@
+package org.example.library.controller;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+
+/**
+ * Обработка ошибок JSON API.
+ *
+ * <p>Ошибки возвращаются в формате RFC 7807 ({@code application/problem+json}) с текстом
+ * причины. Обработчик действует только для контроллеров API: HTML-страницы
+ * по-прежнему показывают стандартную страницу ошибки.</p>
+ *
+ * RestControllerAdvice - обработчики исключений применяются к перечисленным контроллерам
+ */
+@RestControllerAdvice(assignableTypes = {AuthorApiController.class, BookApiController.class, CommentApiController.class})
+public class ApiExceptionHandler extends ResponseEntityExceptionHandler {
+
+    /**
+     * Преобразует нарушение ограничений базы данных (например, ссылку на несуществующего
+     * автора или книгу) в ответ 409.
+     *
+     * @param e исключение Spring Data
+     * @return описание ошибки
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ProblemDetail handleDataIntegrityViolation(DataIntegrityViolationException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT,
+                "Нарушена целостность данных: связанная запись не найдена или уже изменена");
+    }
+}
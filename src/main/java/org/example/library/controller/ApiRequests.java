@@ -0,0 +1,76 @@
+package org.example.library.controller;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Вспомогательные методы JSON API для проверки тел запросов.
+ *
+ * <p>Тела запросов преобразуются в сущности и проверяются по их же ограничениям
+ * ({@code @NotBlank}, {@code @Pattern} и т.д.), как в HTML-формах, поэтому правила
+ * не дублируются в классах запросов.</p>
+ */
+final class ApiRequests {
+    /**
+     * Максимальное количество записей в одном запросе пакетного создания.
+     */
+    static final int MAX_BATCH = 1000;
+
+    private ApiRequests() {
+    }
+
+    /**
+     * Проверяет сущность, созданную из тела запроса.
+     *
+     * @param validator валидатор Bean Validation
+     * @param entity сущность
+     * @param <T> тип сущности
+     * @return та же сущность, если ошибок нет
+     * @throws ResponseStatusException со статусом 400 и описанием ошибок
+     */
+    static <T> T valid(Validator validator, T entity) {
+        String errors = errors(validator, entity);
+        if (errors != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, errors);
+        }
+        return entity;
+    }
+
+    /**
+     * Проверяет сущности пакетного запроса; в описании ошибки указывается номер записи.
+     *
+     * @param validator валидатор Bean Validation
+     * @param entities сущности
+     * @param <T> тип сущности
+     * @return те же сущности, если ошибок нет
+     * @throws ResponseStatusException со статусом 400, если пакет пуст, слишком велик или содержит ошибки
+     */
+    static <T> List<T> validAll(Validator validator, List<T> entities) {
+        if (entities.isEmpty() || entities.size() > MAX_BATCH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Пакет должен содержать от 1 до " + MAX_BATCH + " записей");
+        }
+        for (int i = 0; i < entities.size(); i++) {
+            String errors = errors(validator, entities.get(i));
+            if (errors != null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Запись " + i + ": " + errors);
+            }
+        }
+        return entities;
+    }
+
+    private static String errors(Validator validator, Object entity) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(entity);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
@@ -0,0 +1,140 @@
+package org.example.library.controller;
+import org.example.library.dto.AuthorDto;
+import org.example.library.dto.AuthorRequest;
+import org.example.library.dto.PageDto;
+import org.example.library.model.Author;
+import org.example.library.service.AuthorService;
+import org.example.library.service.EntityVersions;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JSON API для авторов.
+ *
+ * <p>Использует тот же {@link AuthorService}, что и HTML-страницы (кэши, поисковый индекс
+ * и каскадное удаление работают одинаково), но возвращает компактные {@link AuthorDto}
+ * вместо отрисовки шаблонов.</p>
+ * RestController - возвращаемые объекты сериализуются в JSON, а не интерпретируются как имена шаблонов
+ */
+@RestController
+@RequestMapping("/api/authors")
+@RequiredArgsConstructor
+public class AuthorApiController {
+    private final AuthorService authorService;
+    private final Validator validator;
+    private final EntityVersions entityVersions;
+
+    /**
+     * Поля, по которым разрешена сортировка списка авторов.
+     */
+    private static final Set<String> SORTABLE = Set.of("id", "name");
+
+    /**
+     * Возвращает одну страницу авторов.
+     *
+     * @param pageable номер, размер страницы и сортировка из параметров запроса
+     * @param webRequest текущий запрос (для проверки ETag)
+     * @return страница авторов или {@code null} для ответа 304
+     */
+
+    @GetMapping
+    public PageDto<AuthorDto> list(@PageableDefault(size = 20, sort = "id") Pageable pageable, WebRequest webRequest) {
+        if (ConditionalRequests.notModified(webRequest, entityVersions.stamp(EntityVersions.Kind.AUTHORS))) {
+            return null;
+        }
+        return PageDto.of(authorService.findPage(Paging.restrictSort(pageable, SORTABLE, Sort.by("id"))), AuthorDto::of);
+    }
+
+    /**
+     * Возвращает автора по идентификатору.
+     *
+     * @param id идентификатор автора
+     * @param webRequest текущий запрос (для проверки ETag)
+     * @return автор или {@code null} для ответа 304
+     * @throws ResponseStatusException 404, если автор не найден
+     */
+
+    @GetMapping("/{id}")
+    public AuthorDto get(@PathVariable Long id, WebRequest webRequest) {
+        if (ConditionalRequests.notModified(webRequest, entityVersions.stamp(EntityVersions.Kind.AUTHORS))) {
+            return null;
+        }
+        return AuthorDto.of(find(id));
+    }
+
+    /**
+     * Создает автора.
+     *
+     * @param request поля автора
+     * @return ответ 201 с созданным автором и заголовком Location
+     */
+
+    @PostMapping
+    public ResponseEntity<AuthorDto> create(@RequestBody AuthorRequest request) {
+        Author saved = authorService.save(ApiRequests.valid(validator, request.toEntity()));
+        return ResponseEntity.created(URI.create("/api/authors/" + saved.getId())).body(AuthorDto.of(saved));
+    }
+
+    /**
+     * Создает несколько авторов в одной транзакции.
+     *
+     * @param requests поля авторов (не более {@value ApiRequests#MAX_BATCH})
+     * @return ответ 201 с созданными авторами в порядке запроса
+     */
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<AuthorDto>> createAll(@RequestBody List<AuthorRequest> requests) {
+        List<Author> authors = ApiRequests.validAll(validator, requests.stream().map(AuthorRequest::toEntity).toList());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(authorService.saveAll(authors).stream().map(AuthorDto::of).toList());
+    }
+
+    /**
+     * Изменяет автора.
+     *
+     * @param id идентификатор автора
+     * @param request новые поля автора
+     * @return измененный автор
+     * @throws ResponseStatusException 404, если автор не найден
+     */
+
+    @PutMapping("/{id}")
+    public AuthorDto update(@PathVariable Long id, @RequestBody AuthorRequest request) {
+        find(id);
+        Author author = ApiRequests.valid(validator, request.toEntity());
+        author.setId(id);
+        return AuthorDto.of(authorService.save(author));
+    }
+
+    /**
+     * Удаляет автора вместе с его книгами и комментариями к ним.
+     *
+     * @param id идентификатор автора
+     * @return ответ 204
+     */
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
+        authorService.deleteById(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    private Author find(Long id) {
+        Author author = authorService.findById(id);
+        if (author == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Автор не найден");
+        }
+        return author;
+    }
+}
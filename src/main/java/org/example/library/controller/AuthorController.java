@@ -1,13 +1,23 @@
 package org.example.library.controller;
+import io.micrometer.core.annotation.Timed;
+import org.example.library.dto.AuthorOption;
 import org.example.library.model.Author;
 import jakarta.validation.Valid;
 import org.example.library.service.AuthorService;
+import org.example.library.service.EntityVersions;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.validation.BindingResult;
+import org.springframework.web.context.request.WebRequest;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Контроллер для управления авторами в системе.
@@ -25,27 +35,48 @@ import org.springframework.validation.BindingResult;
  * возвращать имена представлений
  * RequestMapping("/authors") - задает корневой URL-путь для методов,все обработчики будут иметь префикс
  * RequiredArgsConstructor - генерирует конструктор final полей, для внедрения зависимостей
+ * Timed - время выполнения каждого обработчика записывается в метрику library.controller
  * <p>Все методы контроллера используют шаблоны Thymeleaf для рендеринга HTML-страниц.</p> */
 
 @Controller
 @RequestMapping("/authors")
+@Timed(value = "library.controller", percentiles = {0.5, 0.95, 0.99})
 @RequiredArgsConstructor
 public class AuthorController {
     private final AuthorService authorService;
+    private final EntityVersions entityVersions;
+    private final FormMetrics formMetrics;
+
+    /**
+     * Поля, по которым разрешена сортировка списка авторов.
+     */
+    private static final Set<String> SORTABLE = Set.of("id", "name");
 
     /**
      * Обрабатывает GET-запрос для отображения списка всех авторов.
      *
-     * <p>Метод получает список всех авторов из сервисного слоя и добавляет его в модель
-     * для отображения на HTML-странице.</p>
+     * <p>Метод получает из сервисного слоя одну страницу авторов и добавляет ее в модель
+     * для отображения на HTML-странице вместе с данными для навигации.</p>
+     * <p>Если список авторов не менялся с версии клиента (заголовок If-None-Match),
+     * отвечает 304 без обращения к базе данных.</p>
      * Model: контейнер для передачи данных в представление
+     * PageableDefault - размер страницы и сортировка, если параметры page/size/sort не переданы
+     * @param pageable номер, размер страницы и сортировка из параметров запроса
+     * @param webRequest текущий запрос (для проверки ETag)
      * @param model объект {@link Model}, используемый для передачи данных в представление
-     * @return имя шаблона Thymeleaf для отображения списка авторов ("author/list")
+     * @return имя шаблона Thymeleaf для отображения списка авторов ("author/list") или {@code null} для ответа 304
      */
 
     @GetMapping
-    public String listAuthors(Model model) {
-        model.addAttribute("authors", authorService.findAll());
+    public String listAuthors(@PageableDefault(size = 20, sort = "id") Pageable pageable, WebRequest webRequest,
+                              Model model) {
+        if (ConditionalRequests.notModified(webRequest, entityVersions.stamp(EntityVersions.Kind.AUTHORS))) {
+            return null;
+        }
+        Slice<AuthorOption> page = authorService.findPage(Paging.restrictSort(pageable, SORTABLE, Sort.by("id")));
+        model.addAttribute("authors", page.getContent());
+        model.addAttribute("page", page);
+        model.addAttribute("sort", Paging.sortParam(page.getSort()));
         return "author/list";
     }
 
@@ -85,12 +116,14 @@ public class AuthorController {
     @PostMapping("/add")
     public String addAuthor(@Valid @ModelAttribute Author author, BindingResult bindingResult, Model model) {
         if(bindingResult.hasErrors()){
+            formMetrics.validationFailed("author/add");
             return "author/add";
         }
         try{
             authorService.save(author);
             return "redirect:/authors";
         }catch (DataIntegrityViolationException e){
+            formMetrics.integrityViolated("author/add");
             model.addAttribute("error", "Автор с именем '" + author.getName() + "' уже существует!");
             return "author/add";
         }
@@ -135,6 +168,7 @@ public class AuthorController {
     @PostMapping("/edit/{id}")
     public String editAuthor(@PathVariable Long id,@Valid @ModelAttribute Author author,BindingResult bindingResult, Model model ) {
         if(bindingResult.hasErrors()){
+            formMetrics.validationFailed("author/edit");
             return  "author/edit";
         }
         try{
@@ -142,6 +176,7 @@ public class AuthorController {
             authorService.save(author);
             return "redirect:/authors";
         }catch (DataIntegrityViolationException e){
+            formMetrics.integrityViolated("author/edit");
             model.addAttribute("error", "Автор с именем '" + author.getName() + "' уже существует!");
             return "author/edit";
         }
@@ -163,4 +198,22 @@ public class AuthorController {
         authorService.deleteById(id);
         return "redirect:/authors";
     }
+
+    /**
+     * Удаляет отмеченные в списке записи одним массовым удалением.
+     *
+     * <p>Авторы удаляются вместе с книгами, комментариями к ним и сводками оценок;
+     * каждая таблица очищается одним запросом, а не по одной строке.</p>
+     *
+     * @param ids идентификаторы выбранных авторов или {@code null}, если ничего не выбрано
+     * @return перенаправление на список авторов
+     */
+
+    @PostMapping("/delete")
+    public String deleteSelected(@RequestParam(name = "ids", required = false) List<Long> ids) {
+        if (ids != null) {
+            authorService.deleteAll(ids);
+        }
+        return "redirect:/authors";
+    }
 }
@@ -0,0 +1,152 @@
+package org.example.library.controller;
+import org.example.library.dto.BookDto;
+import org.example.library.dto.BookRequest;
+import org.example.library.dto.BookRow;
+import org.example.library.dto.PageDto;
+import org.example.library.model.Book;
+import org.example.library.service.BookService;
+import org.example.library.service.EntityVersions;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JSON API для книг.
+ *
+ * <p>Книги отдаются как {@link BookDto}: поля книги, автор и сводка оценок читаются
+ * одним запросом, ленивые связи сущности не сериализуются.</p>
+ * RestController - возвращаемые объекты сериализуются в JSON, а не интерпретируются как имена шаблонов
+ */
+@RestController
+@RequestMapping("/api/books")
+@RequiredArgsConstructor
+public class BookApiController {
+    private final BookService bookService;
+    private final Validator validator;
+    private final EntityVersions entityVersions;
+
+    /**
+     * Поля, по которым разрешена сортировка списка книг.
+     */
+    private static final Set<String> SORTABLE = Set.of("id", "name", "genre");
+
+    /**
+     * Возвращает одну страницу книг, при необходимости отфильтрованных по жанру и автору.
+     *
+     * @param pageable номер, размер страницы и сортировка из параметров запроса
+     * @param genre жанр для фильтрации (необязательно)
+     * @param authorId идентификатор автора для фильтрации (необязательно)
+     * @param webRequest текущий запрос (для проверки ETag)
+     * @return страница книг или {@code null} для ответа 304
+     */
+
+    @GetMapping
+    public PageDto<BookDto> list(@PageableDefault(size = 20, sort = "id") Pageable pageable,
+                                 @RequestParam(required = false) String genre,
+                                 @RequestParam(name = "author", required = false) Long authorId,
+                                 WebRequest webRequest) {
+        if (ConditionalRequests.notModified(webRequest, entityVersions.stamp(
+                EntityVersions.Kind.BOOKS, EntityVersions.Kind.AUTHORS, EntityVersions.Kind.COMMENTS))) {
+            return null;
+        }
+        String genreFilter = StringUtils.hasText(genre) ? genre.trim() : null;
+        return PageDto.of(bookService.findPage(genreFilter, authorId,
+                Paging.restrictSort(pageable, SORTABLE, Sort.by("id"))), BookDto::of);
+    }
+
+    /**
+     * Возвращает книгу по идентификатору.
+     *
+     * @param id идентификатор книги
+     * @param webRequest текущий запрос (для проверки ETag)
+     * @return книга или {@code null} для ответа 304
+     * @throws ResponseStatusException 404, если книга не найдена
+     */
+
+    @GetMapping("/{id}")
+    public BookDto get(@PathVariable Long id, WebRequest webRequest) {
+        if (ConditionalRequests.notModified(webRequest, entityVersions.stamp(
+                EntityVersions.Kind.BOOKS, EntityVersions.Kind.AUTHORS, EntityVersions.Kind.COMMENTS))) {
+            return null;
+        }
+        return find(id);
+    }
+
+    /**
+     * Создает книгу.
+     *
+     * @param request поля книги
+     * @return ответ 201 с созданной книгой и заголовком Location
+     */
+
+    @PostMapping
+    public ResponseEntity<BookDto> create(@RequestBody BookRequest request) {
+        Book saved = bookService.save(ApiRequests.valid(validator, request.toEntity()));
+        return ResponseEntity.created(URI.create("/api/books/" + saved.getId())).body(find(saved.getId()));
+    }
+
+    /**
+     * Создает несколько книг в одной транзакции.
+     *
+     * @param requests поля книг (не более {@value ApiRequests#MAX_BATCH})
+     * @return ответ 201 с созданными книгами в порядке идентификаторов
+     */
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<BookDto>> createAll(@RequestBody List<BookRequest> requests) {
+        List<Book> books = ApiRequests.validAll(validator, requests.stream().map(BookRequest::toEntity).toList());
+        List<Long> ids = bookService.saveAll(books).stream().map(Book::getId).toList();
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(bookService.findRows(ids).stream().map(BookDto::of).toList());
+    }
+
+    /**
+     * Изменяет книгу.
+     *
+     * @param id идентификатор книги
+     * @param request новые поля книги
+     * @return измененная книга
+     * @throws ResponseStatusException 404, если книга не найдена
+     */
+
+    @PutMapping("/{id}")
+    public BookDto update(@PathVariable Long id, @RequestBody BookRequest request) {
+        find(id);
+        Book book = ApiRequests.valid(validator, request.toEntity());
+        book.setId(id);
+        bookService.save(book);
+        return find(id);
+    }
+
+    /**
+     * Удаляет книгу вместе с комментариями и сводкой оценок.
+     *
+     * @param id идентификатор книги
+     * @return ответ 204
+     */
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
+        bookService.deleteById(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    private BookDto find(Long id) {
+        BookRow row = bookService.findRow(id);
+        if (row == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Книга не найдена");
+        }
+        return BookDto.of(row);
+    }
+}
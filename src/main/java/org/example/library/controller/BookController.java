@@ -1,13 +1,31 @@
 package org.example.library.controller;
+import io.micrometer.core.annotation.Timed;
+import org.example.library.dto.BookRow;
 import org.example.library.model.Book;
 import org.example.library.service.AuthorService;
 import org.example.library.service.BookService;
+import org.example.library.service.EntityVersions;
+import org.example.library.service.KeysetCursor;
+import org.example.library.service.KeysetSlice;
+import org.example.library.service.CommentService;
+import org.example.library.service.RatingService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import org.springframework.validation.BindingResult;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Контроллер для управления книгами в системе.
@@ -18,24 +36,127 @@ import org.springframework.validation.BindingResult;
 
 @Controller
 @RequestMapping("/books")
+@Timed(value = "library.controller", percentiles = {0.5, 0.95, 0.99})
 @RequiredArgsConstructor
 public class BookController {
     private final BookService bookService;
     private final AuthorService authorService;
+    private final CommentService commentService;
+    private final RatingService ratingService;
+    private final EntityVersions entityVersions;
+    private final FormMetrics formMetrics;
 
     /**
-     * Обрабатывает GET-запрос для отображения списка всех книг.
+     * Поля, по которым разрешена сортировка списка книг.
+     */
+    private static final Set<String> SORTABLE = Set.of("id", "name", "genre");
+
+    /**
+     * Количество последних комментариев на странице книги.
+     */
+    private static final int RECENT_COMMENTS = 20;
+
+    /**
+     * Количество значений каждого фасета рядом со списком книг.
+     */
+    private static final int FACET_LIMIT = 15;
+
+    /**
+     * Обрабатывает GET-запрос для отображения одной страницы списка книг.
+     *
+     * <p>Без параметра {@code after} страница выбирается по номеру. Ссылка на следующую
+     * страницу по возможности содержит курсор {@code after}: дальнейшие страницы
+     * загружаются по ключу последней строки, и их стоимость не зависит от глубины.</p>
+     *
+     * <p>Параметры {@code genre} и {@code author} фильтруют список; такие страницы
+     * выбираются по номеру. Рядом со списком выводятся фасеты - количество книг по жанрам
+     * и авторам с учетом выбранного фильтра, взятое из счетчиков поискового индекса.</p>
      *
+     * @param pageable номер, размер страницы и сортировка из параметров запроса
+     * @param after курсор keyset-пагинации, полученный на предыдущей странице
+     * @param genre жанр для фильтрации (необязательно)
+     * @param authorId идентификатор автора для фильтрации (необязательно)
+     * @param webRequest текущий запрос (для проверки ETag)
      * @param model объект Spring Model для передачи данных в представление
-     * @return имя шаблона Thymeleaf для отображения списка книг
+     * @return имя шаблона Thymeleaf для отображения списка книг или {@code null} для ответа 304
      */
 
     @GetMapping
-    public String listBooks(Model model) {
-        model.addAttribute("books", bookService.findAll());
+    public String listBooks(@PageableDefault(size = 20, sort = "id") Pageable pageable,
+                            @RequestParam(required = false) String after,
+                            @RequestParam(required = false) String genre,
+                            @RequestParam(name = "author", required = false) Long authorId,
+                            WebRequest webRequest, Model model) {
+        // Строки списка содержат имена авторов и сводки оценок (комментарии)
+        if (ConditionalRequests.notModified(webRequest, entityVersions.stamp(
+                EntityVersions.Kind.BOOKS, EntityVersions.Kind.AUTHORS, EntityVersions.Kind.COMMENTS))) {
+            return null;
+        }
+        String genreFilter = StringUtils.hasText(genre) ? genre.trim() : null;
+        model.addAttribute("size", pageable.getPageSize());
+        model.addAttribute("genre", genreFilter);
+        model.addAttribute("author", authorId);
+        model.addAttribute("authorFilter", authorService.findOption(authorId));
+        model.addAttribute("genreFacets", bookService.genreFacets(authorId, FACET_LIMIT));
+        model.addAttribute("authorFacets", bookService.authorFacets(genreFilter, FACET_LIMIT));
+        if (genreFilter != null || authorId != null) {
+            Slice<BookRow> page = bookService.findPage(genreFilter, authorId,
+                    Paging.restrictSort(pageable, SORTABLE, Sort.by("id")));
+            model.addAttribute("books", page.getContent());
+            model.addAttribute("page", page);
+            model.addAttribute("sort", Paging.sortParam(page.getSort()));
+            model.addAttribute("nextCursor", null);
+            model.addAttribute("keyset", false);
+            return "book/list";
+        }
+        if (after != null) {
+            KeysetCursor cursor = Paging.cursor(after);
+            KeysetSlice<BookRow> slice = bookService.scroll(cursor, pageable.getPageSize());
+            model.addAttribute("books", slice.content());
+            model.addAttribute("nextCursor", slice.nextCursor());
+            model.addAttribute("keyset", true);
+            model.addAttribute("sort", Paging.sortParam(cursor));
+            return "book/list";
+        }
+        Slice<BookRow> page = bookService.findPage(Paging.restrictSort(pageable, SORTABLE, Sort.by("id")));
+        model.addAttribute("books", page.getContent());
+        model.addAttribute("page", page);
+        model.addAttribute("sort", Paging.sortParam(page.getSort()));
+        model.addAttribute("nextCursor", bookService.nextCursor(page));
+        model.addAttribute("keyset", false);
         return "book/list";
     }
 
+    /**
+     * Отображает страницу книги: сводку оценок с гистограммой и последние комментарии.
+     *
+     * <p>Средняя оценка и гистограмма читаются из предвычисленной сводки
+     * одной строкой, без обхода комментариев книги.</p>
+     *
+     * @param id идентификатор книги
+     * @param webRequest текущий запрос (для проверки ETag)
+     * @param model объект Model для передачи данных в представление
+     * @return имя шаблона Thymeleaf для страницы книги или {@code null} для ответа 304
+     */
+
+    @GetMapping("/{id}")
+    public String viewBook(@PathVariable Long id, WebRequest webRequest, Model model) {
+        if (ConditionalRequests.notModified(webRequest, entityVersions.stamp(
+                EntityVersions.Kind.BOOKS, EntityVersions.Kind.AUTHORS, EntityVersions.Kind.COMMENTS))) {
+            return null;
+        }
+        BookRow book = bookService.findRow(id);
+        if (book == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Книга не найдена");
+        }
+        model.addAttribute("book", book);
+        model.addAttribute("rating", ratingService.findByBookId(id));
+        model.addAttribute("comments", commentService.findPageByBookId(id,
+                PageRequest.of(0, RECENT_COMMENTS, Sort.by(Sort.Direction.DESC, "id"))).getContent());
+        model.addAttribute("recentComments", RECENT_COMMENTS);
+        return "book/view";
+    }
+
     /**
      * Отображает форму для добавления новой книги.
      *
@@ -45,8 +166,9 @@ public class BookController {
 
     @GetMapping("/add")
     public String addForm(Model model) {
-        model.addAttribute("book", new Book());
-        model.addAttribute("authors", authorService.findAll());
+        Book book = new Book();
+        model.addAttribute("book", book);
+        addSelectedAuthor(book, model);
         return "book/add";
     }
 
@@ -62,7 +184,8 @@ public class BookController {
     @PostMapping("/add")
     public String addBook(@Valid @ModelAttribute Book book, BindingResult bindingResult, Model model) {
         if(bindingResult.hasErrors()){
-            model.addAttribute("authors", authorService.findAll());
+            formMetrics.validationFailed("book/add");
+            addSelectedAuthor(book, model);
             return "book/add";
         }
         bookService.save(book);
@@ -79,8 +202,9 @@ public class BookController {
 
     @GetMapping("/edit/{id}")
     public String editForm(@PathVariable Long id, Model model) {
-        model.addAttribute("book", bookService.findById(id));
-        model.addAttribute("authors", authorService.findAll());
+        Book book = bookService.findById(id);
+        model.addAttribute("book", book);
+        addSelectedAuthor(book, model);
         return "book/edit";
     }
 
@@ -97,7 +221,8 @@ public class BookController {
     @PostMapping("/edit/{id}")
     public String editBook(@PathVariable Long id,@Valid @ModelAttribute Book book, BindingResult bindingResult, Model model) {
         if(bindingResult.hasErrors()){
-            model.addAttribute("authors", authorService.findAll());
+            formMetrics.validationFailed("book/edit");
+            addSelectedAuthor(book, model);
             return "book/edit";
         }
         book.setId(id);
@@ -117,4 +242,37 @@ public class BookController {
         bookService.deleteById(id);
         return "redirect:/books";
     }
+
+    /**
+     * Удаляет отмеченные в списке записи одним массовым удалением.
+     *
+     * <p>Книги удаляются вместе с комментариями и сводками оценок;
+     * каждая таблица очищается одним запросом, а не по одной строке.</p>
+     *
+     * @param ids идентификаторы выбранных книг или {@code null}, если ничего не выбрано
+     * @return перенаправление на список книг
+     */
+
+    @PostMapping("/delete")
+    public String deleteSelected(@RequestParam(name = "ids", required = false) List<Long> ids) {
+        if (ids != null) {
+            bookService.deleteAll(ids);
+        }
+        return "redirect:/books";
+    }
+
+    /**
+     * Добавляет в модель выбранного автора для поля ввода с подсказками.
+     *
+     * <p>Форма получает только имя текущего автора книги (один запрос по первичному ключу),
+     * а не список всех авторов: остальные варианты поле запрашивает у
+     * {@link SuggestController} по мере ввода.</p>
+     *
+     * @param book книга из формы или из базы данных (может быть {@code null})
+     * @param model объект Model для передачи данных в представление
+     */
+    private void addSelectedAuthor(Book book, Model model) {
+        Long authorId = book != null && book.getAuthor() != null ? book.getAuthor().getId() : null;
+        model.addAttribute("selectedAuthor", authorService.findOption(authorId));
+    }
 }
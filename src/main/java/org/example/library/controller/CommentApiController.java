@@ -0,0 +1,145 @@
+package org.example.library.controller;
+import org.example.library.dto.CommentDto;
+import org.example.library.dto.CommentRequest;
+import org.example.library.dto.PageDto;
+import org.example.library.model.Comment;
+import org.example.library.service.CommentService;
+import org.example.library.service.EntityVersions;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JSON API для комментариев.
+ *
+ * <p>Сохранение и удаление идут через {@link CommentService}, поэтому сводки оценок
+ * книг, кэши и поисковый индекс обновляются так же, как из HTML-форм.</p>
+ * RestController - возвращаемые объекты сериализуются в JSON, а не интерпретируются как имена шаблонов
+ */
+@RestController
+@RequestMapping("/api/comments")
+@RequiredArgsConstructor
+public class CommentApiController {
+    private final CommentService commentService;
+    private final Validator validator;
+    private final EntityVersions entityVersions;
+
+    /**
+     * Поля, по которым разрешена сортировка списка комментариев.
+     */
+    private static final Set<String> SORTABLE = Set.of("id", "reader", "rating");
+
+    /**
+     * Возвращает одну страницу комментариев, всех или к одной книге.
+     *
+     * @param pageable номер, размер страницы и сортировка из параметров запроса
+     * @param bookId идентификатор книги для фильтрации (необязательно)
+     * @param webRequest текущий запрос (для проверки ETag)
+     * @return страница комментариев или {@code null} для ответа 304
+     */
+
+    @GetMapping
+    public PageDto<CommentDto> list(@PageableDefault(size = 20, sort = "id") Pageable pageable,
+                                    @RequestParam(name = "book", required = false) Long bookId,
+                                    WebRequest webRequest) {
+        if (ConditionalRequests.notModified(webRequest, entityVersions.stamp(EntityVersions.Kind.COMMENTS))) {
+            return null;
+        }
+        Pageable page = Paging.restrictSort(pageable, SORTABLE, Sort.by("id"));
+        return PageDto.of(bookId == null ? commentService.findPage(page) : commentService.findPageByBookId(bookId, page),
+                CommentDto::of);
+    }
+
+    /**
+     * Возвращает комментарий по идентификатору.
+     *
+     * @param id идентификатор комментария
+     * @param webRequest текущий запрос (для проверки ETag)
+     * @return комментарий или {@code null} для ответа 304
+     * @throws ResponseStatusException 404, если комментарий не найден
+     */
+
+    @GetMapping("/{id}")
+    public CommentDto get(@PathVariable Long id, WebRequest webRequest) {
+        if (ConditionalRequests.notModified(webRequest, entityVersions.stamp(EntityVersions.Kind.COMMENTS))) {
+            return null;
+        }
+        return CommentDto.of(find(id));
+    }
+
+    /**
+     * Создает комментарий.
+     *
+     * @param request поля комментария
+     * @return ответ 201 с созданным комментарием и заголовком Location
+     */
+
+    @PostMapping
+    public ResponseEntity<CommentDto> create(@RequestBody CommentRequest request) {
+        Comment saved = commentService.save(ApiRequests.valid(validator, request.toEntity()));
+        return ResponseEntity.created(URI.create("/api/comments/" + saved.getId())).body(CommentDto.of(saved));
+    }
+
+    /**
+     * Создает несколько комментариев в одной транзакции.
+     *
+     * @param requests поля комментариев (не более {@value ApiRequests#MAX_BATCH})
+     * @return ответ 201 с созданными комментариями в порядке запроса
+     */
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<CommentDto>> createAll(@RequestBody List<CommentRequest> requests) {
+        List<Comment> comments = ApiRequests.validAll(validator,
+                requests.stream().map(CommentRequest::toEntity).toList());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(commentService.saveAll(comments).stream().map(CommentDto::of).toList());
+    }
+
+    /**
+     * Изменяет комментарий.
+     *
+     * @param id идентификатор комментария
+     * @param request новые поля комментария
+     * @return измененный комментарий
+     * @throws ResponseStatusException 404, если комментарий не найден
+     */
+
+    @PutMapping("/{id}")
+    public CommentDto update(@PathVariable Long id, @RequestBody CommentRequest request) {
+        find(id);
+        Comment comment = ApiRequests.valid(validator, request.toEntity());
+        comment.setId(id);
+        return CommentDto.of(commentService.save(comment));
+    }
+
+    /**
+     * Удаляет комментарий и убирает его оценку из сводки книги.
+     *
+     * @param id идентификатор комментария
+     * @return ответ 204
+     */
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
+        commentService.deleteById(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    private Comment find(Long id) {
+        Comment comment = commentService.findById(id);
+        if (comment == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Комментарий не найден");
+        }
+        return comment;
+    }
+}
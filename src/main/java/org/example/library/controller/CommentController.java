@@ -1,13 +1,26 @@
 package org.example.library.controller;
+import io.micrometer.core.annotation.Timed;
+import org.example.library.dto.CommentRow;
 import org.example.library.model.Comment;
 import org.example.library.service.BookService;
 import org.example.library.service.CommentService;
+import org.example.library.service.CommentWriteBehind;
+import org.example.library.service.EntityVersions;
+import org.example.library.service.KeysetCursor;
+import org.example.library.service.KeysetSlice;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import org.springframework.validation.BindingResult;
+import org.springframework.web.context.request.WebRequest;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Контроллер для управления комментариями в системе.
@@ -15,21 +28,58 @@ import org.springframework.validation.BindingResult;
  */
 @Controller
 @RequestMapping("/comments")
+@Timed(value = "library.controller", percentiles = {0.5, 0.95, 0.99})
 @RequiredArgsConstructor
 public class CommentController {
     private final CommentService commentService;
+    private final CommentWriteBehind commentWriteBehind;
     private final BookService bookService;
+    private final EntityVersions entityVersions;
+    private final FormMetrics formMetrics;
 
     /**
-     * Отображает список всех комментариев.
+     * Поля, по которым разрешена сортировка списка комментариев.
+     */
+    private static final Set<String> SORTABLE = Set.of("id", "reader", "rating");
+
+    /**
+     * Отображает одну страницу списка комментариев.
+     *
+     * <p>Без параметра {@code after} страница выбирается по номеру. Ссылка на следующую
+     * страницу по возможности содержит курсор {@code after}: дальнейшие страницы
+     * загружаются по ключу последней строки, и их стоимость не зависит от глубины.</p>
      *
+     * @param pageable номер, размер страницы и сортировка из параметров запроса
+     * @param after курсор keyset-пагинации, полученный на предыдущей странице
+     * @param webRequest текущий запрос (для проверки ETag)
      * @param model объект для передачи данных в представление
-     * @return имя шаблона списка комментариев
+     * @return имя шаблона списка комментариев или {@code null} для ответа 304
      */
 
     @GetMapping
-    public String listComments(Model model) {
-        model.addAttribute("comments", commentService.findAll());
+    public String listComments(@PageableDefault(size = 20, sort = "id") Pageable pageable,
+                               @RequestParam(required = false) String after, WebRequest webRequest, Model model) {
+        // Строки списка содержат названия книг и имена авторов
+        if (ConditionalRequests.notModified(webRequest, entityVersions.stamp(
+                EntityVersions.Kind.COMMENTS, EntityVersions.Kind.BOOKS, EntityVersions.Kind.AUTHORS))) {
+            return null;
+        }
+        model.addAttribute("size", pageable.getPageSize());
+        if (after != null) {
+            KeysetCursor cursor = Paging.cursor(after);
+            KeysetSlice<CommentRow> slice = commentService.scroll(cursor, pageable.getPageSize());
+            model.addAttribute("comments", slice.content());
+            model.addAttribute("nextCursor", slice.nextCursor());
+            model.addAttribute("keyset", true);
+            model.addAttribute("sort", Paging.sortParam(cursor));
+            return "comment/list";
+        }
+        Slice<CommentRow> page = commentService.findPage(Paging.restrictSort(pageable, SORTABLE, Sort.by("id")));
+        model.addAttribute("comments", page.getContent());
+        model.addAttribute("page", page);
+        model.addAttribute("sort", Paging.sortParam(page.getSort()));
+        model.addAttribute("nextCursor", commentService.nextCursor(page));
+        model.addAttribute("keyset", false);
         return "comment/list";
     }
 
@@ -42,14 +92,19 @@ public class CommentController {
 
     @GetMapping("/add")
     public String addForm(Model model) {
-        model.addAttribute("comment", new Comment());
-        model.addAttribute("books", bookService.findAll());
+        Comment comment = new Comment();
+        model.addAttribute("comment", comment);
+        addSelectedBook(comment, model);
         return "comment/add";
     }
 
     /**
      * Обрабатывает отправку формы добавления комментария.
      *
+     * <p>В режиме отложенной записи комментарий ставится в очередь и появляется
+     * в списке после записи очередного пакета; если очередь заполнена,
+     * форма возвращается с сообщением об ошибке.</p>
+     *
      * @param comment объект Comment с данными из формы
      * @param bindingResult результаты валидации
      * @param model объект для передачи данных в представление
@@ -59,10 +114,17 @@ public class CommentController {
     @PostMapping("/add")
     public String addComment(@Valid @ModelAttribute Comment comment, BindingResult bindingResult, Model model) {
         if(bindingResult.hasErrors()){
-            model.addAttribute("books", bookService.findAll());
+            formMetrics.validationFailed("comment/add");
+            addSelectedBook(comment, model);
+            return "comment/add";
+        }
+        if(!commentWriteBehind.isEnabled()){
+            commentService.save(comment);
+        }else if(!commentWriteBehind.offer(comment)){
+            model.addAttribute("errorMessage", "Слишком много новых отзывов, попробуйте отправить через минуту");
+            addSelectedBook(comment, model);
             return "comment/add";
         }
-        commentService.save(comment);
         return "redirect:/comments";
     }
 
@@ -76,8 +138,9 @@ public class CommentController {
 
     @GetMapping("/edit/{id}")
     public String editForm(@PathVariable Long id, Model model) {
-        model.addAttribute("comment", commentService.findById(id));
-        model.addAttribute("books", bookService.findAll());
+        Comment comment = commentService.findById(id);
+        model.addAttribute("comment", comment);
+        addSelectedBook(comment, model);
         return "comment/edit";
     }
 
@@ -94,7 +157,8 @@ public class CommentController {
     @PostMapping("/edit/{id}")
     public String editComment(@PathVariable Long id,@Valid @ModelAttribute Comment comment,BindingResult bindingResult, Model model ) {
         if(bindingResult.hasErrors()){
-            model.addAttribute("books", bookService.findAll());
+            formMetrics.validationFailed("comment/edit");
+            addSelectedBook(comment, model);
             return "comment/edit";
         }
         comment.setId(id);
@@ -114,4 +178,36 @@ public class CommentController {
         commentService.deleteById(id);
         return "redirect:/comments";
     }
+
+    /**
+     * Удаляет отмеченные в списке записи одним массовым удалением.
+     *
+     * <p>Оценки удаленных комментариев убираются из сводок книг;
+     * каждая таблица очищается одним запросом, а не по одной строке.</p>
+     *
+     * @param ids идентификаторы выбранных комментариев или {@code null}, если ничего не выбрано
+     * @return перенаправление на список комментариев
+     */
+
+    @PostMapping("/delete")
+    public String deleteSelected(@RequestParam(name = "ids", required = false) List<Long> ids) {
+        if (ids != null) {
+            commentService.deleteAll(ids);
+        }
+        return "redirect:/comments";
+    }
+
+    /**
+     * Добавляет в модель выбранную книгу для поля ввода с подсказками.
+     *
+     * <p>Форма получает только название текущей книги комментария, остальные
+     * варианты поле запрашивает у {@link SuggestController} по мере ввода.</p>
+     *
+     * @param comment комментарий из формы или из базы данных (может быть {@code null})
+     * @param model объект для передачи данных в представление
+     */
+    private void addSelectedBook(Comment comment, Model model) {
+        Long bookId = comment != null && comment.getBook() != null ? comment.getBook().getId() : null;
+        model.addAttribute("selectedBook", bookService.findOption(bookId));
+    }
 }
@@ -0,0 +1,75 @@
+package org.example.library.controller;
+import org.example.library.dto.CommentDto;
+import org.example.library.service.BookService;
+import org.example.library.service.CommentFeed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+
+/**
+ * Контроллер живой ленты новых комментариев книги (Server-Sent Events).
+ *
+ * <p>Страница книги подписывается на ленту вместо периодического перезапроса списка.
+ * Каждый новый комментарий приходит событием {@code comment} с JSON {@link CommentDto}.
+ * Соединение обрабатывается асинхронно и не занимает поток сервера между событиями;
+ * по истечении {@code spring.mvc.async.request-timeout} оно закрывается,
+ * и браузер ({@code EventSource}) переподключается сам.</p>
+ */
+@Controller
+@RequestMapping("/books")
+@RequiredArgsConstructor
+public class CommentStreamController {
+    private final CommentFeed commentFeed;
+    private final BookService bookService;
+
+    /**
+     * Открывает ленту новых комментариев книги.
+     *
+     * @param id идентификатор книги
+     * @return поток событий, который заполняется по мере появления комментариев
+     */
+
+    @GetMapping(path = "/{id}/comments/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamComments(@PathVariable Long id) {
+        if (!bookService.exists(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Книга не найдена");
+        }
+        SseEmitter emitter = new SseEmitter();
+        CommentFeed.Subscription subscription = commentFeed.subscribe(id, new EmitterSink(emitter));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
+    }
+
+    /**
+     * Получатель событий шины, пишущий в SSE-соединение.
+     */
+    private record EmitterSink(SseEmitter emitter) implements CommentFeed.Sink {
+
+        @Override
+        public void send(CommentDto comment) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(comment.id()))
+                    .name("comment")
+                    .data(comment, MediaType.APPLICATION_JSON));
+        }
+
+        @Override
+        public void heartbeat() throws IOException {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+        }
+
+        @Override
+        public void close() {
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.library.controller;
+import org.example.library.service.EntityVersions;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Вспомогательные методы для условных GET-запросов (ETag / Last-Modified / 304).
+ *
+ * <p>Обработчик вызывает {@link #notModified} до обращения к сервисам: если данные
+ * не менялись с версии, сохраненной клиентом, он возвращает {@code null},
+ * и Spring отправляет ответ 304 без тела.</p>
+ *
+ * <p>ETag слабый ({@code W/"..."}): сжатый и несжатый ответы отличаются побайтно,
+ * а Tomcat не сжимает ответы с сильным ETag.</p>
+ */
+final class ConditionalRequests {
+    /**
+     * Ответы можно хранить в браузере и прокси, но перед использованием
+     * их нужно перепроверить условным запросом.
+     */
+    static final String CACHE_CONTROL = CacheControl.noCache().getHeaderValue();
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * Выставляет заголовки ETag, Last-Modified и Cache-Control и проверяет условия запроса.
+     *
+     * @param request текущий запрос
+     * @param stamp версии данных, выводимых на странице
+     * @return {@code true}, если у клиента актуальная копия и нужно ответить 304
+     */
+    static boolean notModified(WebRequest request, EntityVersions.Stamp stamp) {
+        if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+            servletRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        }
+        return request.checkNotModified("W/\"" + stamp.etag() + "\"", stamp.lastModified());
+    }
+}
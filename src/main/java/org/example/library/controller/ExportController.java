@@ -0,0 +1,88 @@
+package org.example.library.controller;
+import org.example.library.service.ExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Контроллер выгрузки каталога книг в файл.
+ *
+ * <p>Файл формируется по мере чтения строк из базы и сразу передается клиенту
+ * ({@link StreamingResponseBody}): ответ не собирается в памяти целиком.
+ * Запись выполняется вне потока обработки запроса, поэтому выгрузка не использует
+ * контекст персистентности запроса (open-in-view), а открывает свою
+ * транзакцию только для чтения.</p>
+ */
+@Controller
+@RequestMapping("/export")
+@RequiredArgsConstructor
+public class ExportController {
+    private static final MediaType CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final MediaType JSONL = new MediaType("application", "x-ndjson", StandardCharsets.UTF_8);
+    private static final MediaType GZIP = new MediaType("application", "gzip");
+
+    private final ExportService exportService;
+
+    /**
+     * Выгружает все книги в CSV.
+     *
+     * @param gzip сжать файл gzip
+     * @return файл books.csv (или books.csv.gz)
+     */
+
+    @GetMapping("/books.csv")
+    public ResponseEntity<StreamingResponseBody> exportBooksCsv(@RequestParam(defaultValue = "false") boolean gzip) {
+        return download("books.csv", CSV, gzip, exportService::writeBooksCsv);
+    }
+
+    /**
+     * Выгружает все книги в JSON Lines.
+     *
+     * @param gzip сжать файл gzip
+     * @return файл books.jsonl (или books.jsonl.gz)
+     */
+
+    @GetMapping("/books.jsonl")
+    public ResponseEntity<StreamingResponseBody> exportBooksJsonl(@RequestParam(defaultValue = "false") boolean gzip) {
+        return download("books.jsonl", JSONL, gzip, exportService::writeBooksJsonl);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> download(String filename, MediaType type, boolean gzip,
+                                                                  BookWriter writer) {
+        StreamingResponseBody body = output -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(output, 1 << 16);
+                writer.write(compressed);
+                compressed.finish();
+            } else {
+                writer.write(output);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(gzip ? GZIP : type)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(gzip ? filename + ".gz" : filename)
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    /**
+     * Метод сервиса, записывающий выгрузку в поток.
+     */
+    @FunctionalInterface
+    private interface BookWriter {
+        long write(OutputStream output) throws IOException;
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.library.controller;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Счетчики отклоненных отправок HTML-форм.
+ *
+ * <ul>
+ *   <li>{@code library.form.validation.failures} - форма не прошла валидацию</li>
+ *   <li>{@code library.form.integrity.violations} - база данных отклонила запись
+ *   (например, дублирование имени автора)</li>
+ * </ul>
+ * Тег {@code form} содержит имя шаблона формы, например {@code author/add}.
+ */
+@Component
+@RequiredArgsConstructor
+class FormMetrics {
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Учитывает отправку формы с ошибками валидации.
+     *
+     * @param form имя шаблона формы
+     */
+    void validationFailed(String form) {
+        meterRegistry.counter("library.form.validation.failures", "form", form).increment();
+    }
+
+    /**
+     * Учитывает отправку формы, отклоненную из-за нарушения целостности данных.
+     *
+     * @param form имя шаблона формы
+     */
+    void integrityViolated(String form) {
+        meterRegistry.counter("library.form.integrity.violations", "form", form).increment();
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.library.controller;
+import org.example.library.dto.ImportReport;
+import org.example.library.service.ImportFormat;
+import org.example.library.service.ImportKind;
+import org.example.library.service.ImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Контроллер массовой загрузки авторов, книг и комментариев из файла.
+ *
+ * <p>Загруженный файл передается в {@link ImportService} потоком, без чтения в память.</p>
+ */
+@Controller
+@RequestMapping("/import")
+@RequiredArgsConstructor
+public class ImportController {
+    private final ImportService importService;
+
+    /**
+     * Отображает форму загрузки файла.
+     *
+     * @param model объект для передачи данных в представление
+     * @return имя шаблона формы импорта
+     */
+
+    @GetMapping
+    public String importForm(Model model) {
+        model.addAttribute("kinds", ImportKind.values());
+        return "import/form";
+    }
+
+    /**
+     * Импортирует загруженный файл и показывает отчет.
+     *
+     * @param file файл CSV или JSON Lines
+     * @param kind тип записей в файле
+     * @param format формат файла; если не указан, определяется по расширению
+     * @param model объект для передачи данных в представление
+     * @return имя шаблона формы импорта с отчетом
+     * @throws IOException при ошибке чтения файла
+     */
+
+    @PostMapping
+    public String importFile(@RequestParam MultipartFile file, @RequestParam ImportKind kind,
+                             @RequestParam(required = false) ImportFormat format, Model model) throws IOException {
+        ImportFormat resolved = format != null ? format : ImportFormat.fromFilename(file.getOriginalFilename());
+        if (resolved == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Не удалось определить формат файла: ожидается .csv или .jsonl");
+        }
+        ImportReport report;
+        try (InputStream input = file.getInputStream()) {
+            report = importService.importRecords(kind, resolved, input);
+        }
+        model.addAttribute("kinds", ImportKind.values());
+        model.addAttribute("report", report);
+        return "import/form";
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.library.controller;
+import org.example.library.service.LeaderboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+/**
+ * Контроллер страницы рейтингов книг и авторов.
+ *
+ * <p>Рейтинги берутся из снимка, который {@link LeaderboardService} пересчитывает
+ * по расписанию, поэтому отображение страницы не выполняет запросов к базе данных.</p>
+ */
+@Controller
+@RequestMapping("/leaderboards")
+@RequiredArgsConstructor
+public class LeaderboardController {
+    private final LeaderboardService leaderboardService;
+
+    /**
+     * Минимальное количество оценок для рейтинга по средней оценке (для подписи на странице).
+     */
+    @Value("${library.leaderboards.min-reviews:5}")
+    private long minReviews;
+
+    /**
+     * Отображает рейтинги.
+     *
+     * @param model объект для передачи данных в представление
+     * @return имя шаблона страницы рейтингов
+     */
+
+    @GetMapping
+    public String leaderboards(Model model) {
+        model.addAttribute("leaderboards", leaderboardService.current());
+        model.addAttribute("minReviews", minReviews);
+        return "leaderboard/index";
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.library.controller;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.example.library.service.KeysetCursor;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.Set;
+
+/**
+ * Вспомогательные методы для постраничного вывода списков.
+ *
+ * <p>Параметры {@code page}, {@code size} и {@code sort} приходят из URL, поэтому
+ * сортировка ограничивается заранее известным набором полей: неизвестное поле
+ * привело бы к ошибке построения запроса в репозитории.</p>
+ */
+final class Paging {
+
+    private Paging() {
+    }
+
+    /**
+     * Оставляет в запросе страницы только разрешенные поля сортировки.
+     *
+     * <p>Если сортировка не включает {@code id}, он добавляется последним ключом:
+     * порядок строк с равными значениями становится однозначным, и страницы
+     * не пересекаются.</p>
+     *
+     * @param pageable запрошенная страница
+     * @param allowed поля сущности, по которым разрешено сортировать
+     * @param fallback сортировка по умолчанию, если после фильтрации ничего не осталось
+     * @return страница с безопасной сортировкой
+     */
+    static Pageable restrictSort(Pageable pageable, Set<String> allowed, Sort fallback) {
+        Sort sort = Sort.by(pageable.getSort().stream()
+                .filter(order -> allowed.contains(order.getProperty()))
+                .toList());
+        if (sort.isUnsorted()) {
+            sort = fallback;
+        }
+        if (sort.getOrderFor("id") == null) {
+            sort = sort.and(Sort.by("id"));
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+    }
+
+    /**
+     * Преобразует сортировку обратно в значение параметра {@code sort}
+     * (например {@code name,desc}) для ссылок навигации по страницам.
+     *
+     * @param sort текущая сортировка
+     * @return значение параметра или пустая строка, если сортировка не задана
+     */
+    static String sortParam(Sort sort) {
+        return sort.stream()
+                .findFirst()
+                .map(order -> order.getProperty() + "," + order.getDirection().name().toLowerCase())
+                .orElse("");
+    }
+
+    /**
+     * Разбирает токен курсора из параметра {@code after}.
+     *
+     * @param token токен, выданный на предыдущей странице
+     * @return курсор
+     * @throws ResponseStatusException со статусом 400, если токен поврежден
+     */
+    static KeysetCursor cursor(String token) {
+        try {
+            return KeysetCursor.decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Некорректный курсор страницы", e);
+        }
+    }
+
+    /**
+     * Возвращает значение параметра {@code sort}, соответствующее ключу курсора.
+     *
+     * @param cursor курсор keyset-пагинации
+     * @return значение параметра, например {@code name,asc}
+     */
+    static String sortParam(KeysetCursor cursor) {
+        return "rating".equals(cursor.sort()) ? "rating,desc" : cursor.sort() + ",asc";
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.library.controller;
+import org.example.library.service.SearchIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+/**
+ * Контроллер полнотекстового поиска книг.
+ *
+ * <p>Запрос обрабатывается поисковым индексом в памяти ({@link SearchIndex})
+ * и не обращается к базе данных.</p>
+ */
+@Controller
+@RequestMapping("/search")
+@RequiredArgsConstructor
+public class SearchController {
+    private final SearchIndex searchIndex;
+
+    /**
+     * Максимальное количество книг в выдаче.
+     */
+    public static final int SEARCH_LIMIT = 50;
+
+    /**
+     * Отображает форму поиска и найденные книги.
+     *
+     * @param q текст запроса (слова ищутся по названию, жанру, автору и читателям)
+     * @param model объект для передачи данных в представление
+     * @return имя шаблона страницы поиска
+     */
+
+    @GetMapping
+    public String search(@RequestParam(defaultValue = "") String q, Model model) {
+        model.addAttribute("query", q);
+        model.addAttribute("hits", searchIndex.search(q, SEARCH_LIMIT));
+        model.addAttribute("indexed", searchIndex.size());
+        return "search/results";
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.library.controller;
+import org.example.library.dto.CacheStatistics;
+import org.example.library.dto.RegionStatistics;
+import org.example.library.service.LibraryCaches;
+import org.example.library.service.SecondLevelCacheStatistics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import java.util.List;
+
+/**
+ * JSON-эндпоинты статистики для наблюдения за работой приложения.
+ */
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+public class StatsController {
+    private final LibraryCaches libraryCaches;
+    private final SecondLevelCacheStatistics secondLevelCacheStatistics;
+
+    /**
+     * Возвращает статистику кэшей сервисного слоя: размер, попадания, промахи и вытеснения.
+     *
+     * @return статистика по каждому кэшу
+     */
+
+    @GetMapping("/caches")
+    public List<CacheStatistics> caches() {
+        return libraryCaches.statistics();
+    }
+
+    /**
+     * Возвращает статистику регионов кэша второго уровня Hibernate: сущностей,
+     * коллекций и кэша запросов.
+     *
+     * @return статистика по каждому региону
+     */
+
+    @GetMapping("/hibernate-cache")
+    public List<RegionStatistics> hibernateCache() {
+        return secondLevelCacheStatistics.regions();
+    }
+}
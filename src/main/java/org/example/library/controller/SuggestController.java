@@ -0,0 +1,51 @@
+package org.example.library.controller;
+import org.example.library.dto.AuthorOption;
+import org.example.library.dto.BookOption;
+import org.example.library.service.AuthorService;
+import org.example.library.service.BookService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import java.util.List;
+
+/**
+ * JSON-эндпоинты подсказок для полей ввода автора и книги в формах.
+ *
+ * <p>Формы больше не получают полный список авторов или книг: поле ввода
+ * запрашивает подсказки по первым буквам, и стоимость отрисовки формы
+ * не зависит от размера каталога.</p>
+ * RestController - возвращаемые объекты сериализуются в JSON, а не интерпретируются как имена шаблонов
+ */
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class SuggestController {
+    private final AuthorService authorService;
+    private final BookService bookService;
+
+    /**
+     * Возвращает авторов, имя которых начинается с введенного текста.
+     *
+     * @param q введенный текст
+     * @return список подсказок (может быть пустым)
+     */
+
+    @GetMapping("/authors/suggest")
+    public List<AuthorOption> suggestAuthors(@RequestParam(defaultValue = "") String q) {
+        return authorService.suggest(q);
+    }
+
+    /**
+     * Возвращает книги, название которых начинается с введенного текста.
+     *
+     * @param q введенный текст
+     * @return список подсказок (может быть пустым)
+     */
+
+    @GetMapping("/books/suggest")
+    public List<BookOption> suggestBooks(@RequestParam(defaultValue = "") String q) {
+        return bookService.suggest(q);
+    }
+}
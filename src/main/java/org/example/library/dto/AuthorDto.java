@@ -0,0 +1,34 @@
+package org.example.library.dto;
+import org.example.library.model.Author;
+
+/**
+ * Автор в ответах JSON API.
+ *
+ * <p>Содержит только поля автора: список книг не сериализуется, поэтому Jackson
+ * не обращается к ленивой коллекции {@code Author.books}.</p>
+ *
+ * @param id идентификатор автора
+ * @param name имя автора
+ */
+public record AuthorDto(Long id, String name) {
+
+    /**
+     * Создает представление из сущности автора.
+     *
+     * @param author автор
+     * @return представление для ответа
+     */
+    public static AuthorDto of(Author author) {
+        return new AuthorDto(author.getId(), author.getName());
+    }
+
+    /**
+     * Создает представление из проекции автора.
+     *
+     * @param option идентификатор и имя автора
+     * @return представление для ответа
+     */
+    public static AuthorDto of(AuthorOption option) {
+        return new AuthorDto(option.id(), option.name());
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.library.dto;
+
+/**
+ * Облегченное представление автора: только идентификатор и имя.
+ *
+ * <p>Используется в списке авторов и в выпадающих списках форм. Создается
+ * конструкторным выражением JPQL ({@code SELECT new ...}), поэтому не попадает
+ * в контекст персистентности и не отслеживается Hibernate.</p>
+ *
+ * @param id идентификатор автора
+ * @param name имя автора
+ */
+public record AuthorOption(Long id, String name) {
+}
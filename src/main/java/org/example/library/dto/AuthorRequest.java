@@ -0,0 +1,23 @@
+package org.example.library.dto;
+import org.example.library.model.Author;
+
+/**
+ * Тело запроса JSON API на создание или изменение автора.
+ *
+ * <p>Проверка полей выполняется по ограничениям сущности {@link Author}.</p>
+ *
+ * @param name имя автора
+ */
+public record AuthorRequest(String name) {
+
+    /**
+     * Создает сущность автора с полями запроса.
+     *
+     * @return новый (еще не сохраненный) автор
+     */
+    public Author toEntity() {
+        Author author = new Author();
+        author.setName(name);
+        return author;
+    }
+}
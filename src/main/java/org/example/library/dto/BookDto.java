@@ -0,0 +1,30 @@
+package org.example.library.dto;
+
+/**
+ * Книга в ответах JSON API: поля книги, автор и сводка оценок.
+ *
+ * <p>Строится из {@link BookRow}, полученной одним запросом, поэтому не затрагивает
+ * ленивые связи {@code Book.author} и {@code Book.comments}.</p>
+ *
+ * @param id идентификатор книги
+ * @param name название
+ * @param genre жанр (может быть {@code null})
+ * @param authorId идентификатор автора
+ * @param authorName имя автора
+ * @param reviewCount количество оценок
+ * @param averageRating средняя оценка ({@code 0}, если оценок нет)
+ */
+public record BookDto(Long id, String name, String genre, Long authorId, String authorName,
+                      long reviewCount, double averageRating) {
+
+    /**
+     * Создает представление из строки списка книг.
+     *
+     * @param row строка списка книг
+     * @return представление для ответа
+     */
+    public static BookDto of(BookRow row) {
+        return new BookDto(row.id(), row.name(), row.genre(), row.authorId(), row.authorName(),
+                row.reviewCount(), row.averageRating());
+    }
+}
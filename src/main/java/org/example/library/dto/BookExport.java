@@ -0,0 +1,27 @@
+package org.example.library.dto;
+
+/**
+ * Строка выгрузки каталога книг.
+ *
+ * <p>Поля {@code name}, {@code genre} и {@code author} совпадают с полями импорта книг,
+ * поэтому выгрузку можно загрузить обратно.</p>
+ *
+ * @param id идентификатор книги
+ * @param name название
+ * @param genre жанр (может быть {@code null})
+ * @param author имя автора
+ * @param reviewCount количество оценок
+ * @param averageRating средняя оценка ({@code 0}, если оценок нет)
+ */
+public record BookExport(Long id, String name, String genre, String author, long reviewCount, double averageRating) {
+
+    /**
+     * Создает строку выгрузки из строки списка книг.
+     *
+     * @param row строка списка книг
+     * @return строка выгрузки
+     */
+    public static BookExport of(BookRow row) {
+        return new BookExport(row.id(), row.name(), row.genre(), row.authorName(), row.reviewCount(), row.averageRating());
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.library.dto;
+
+/**
+ * Поля книги, по которым она попадает в поисковый индекс.
+ *
+ * <p>Имя автора не входит в строку: индекс хранит имена авторов отдельно и
+ * переиндексирует все книги автора при его переименовании.</p>
+ *
+ * @param id идентификатор книги
+ * @param name название книги
+ * @param genre жанр книги
+ * @param authorId идентификатор автора
+ */
+public record BookIndexRow(Long id, String name, String genre, Long authorId) {
+}
@@ -0,0 +1,11 @@
+package org.example.library.dto;
+
+/**
+ * Облегченное представление книги для выпадающих списков форм.
+ *
+ * @param id идентификатор книги
+ * @param name название книги
+ * @param authorName имя автора книги
+ */
+public record BookOption(Long id, String name, String authorName) {
+}
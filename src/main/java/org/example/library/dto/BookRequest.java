@@ -0,0 +1,33 @@
+package org.example.library.dto;
+import org.example.library.model.Author;
+import org.example.library.model.Book;
+
+/**
+ * Тело запроса JSON API на создание или изменение книги.
+ *
+ * <p>Автор указывается идентификатором, как в форме книги ({@code author.id}).
+ * Проверка полей выполняется по ограничениям сущности {@link Book}.</p>
+ *
+ * @param name название
+ * @param genre жанр (необязательно)
+ * @param authorId идентификатор автора
+ */
+public record BookRequest(String name, String genre, Long authorId) {
+
+    /**
+     * Создает сущность книги с полями запроса.
+     *
+     * @return новая (еще не сохраненная) книга
+     */
+    public Book toEntity() {
+        Book book = new Book();
+        book.setName(name);
+        book.setGenre(genre);
+        if (authorId != null) {
+            Author author = new Author();
+            author.setId(authorId);
+            book.setAuthor(author);
+        }
+        return book;
+    }
+}
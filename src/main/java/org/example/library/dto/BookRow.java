@@ -0,0 +1,29 @@
+package org.example.library.dto;
+
+/**
+ * Строка списка книг.
+ *
+ * <p>Содержит только поля, которые выводятся в таблице, включая имя автора
+ * и сводку оценок, полученные тем же запросом через JOIN. В отличие от сущности {@code Book}
+ * не требует ленивых прокси и проверки изменений при закрытии сессии.</p>
+ *
+ * @param id идентификатор книги
+ * @param name название книги
+ * @param genre жанр книги (может быть {@code null})
+ * @param authorId идентификатор автора книги
+ * @param authorName имя автора книги
+ * @param reviewCount количество оценок книги
+ * @param ratingSum сумма оценок книги
+ */
+public record BookRow(Long id, String name, String genre, Long authorId, String authorName,
+                      long reviewCount, long ratingSum) {
+
+    /**
+     * Средняя оценка книги.
+     *
+     * @return средняя оценка или {@code 0}, если оценок нет
+     */
+    public double averageRating() {
+        return reviewCount == 0 ? 0 : (double) ratingSum / reviewCount;
+    }
+}
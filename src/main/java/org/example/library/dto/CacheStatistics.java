@@ -0,0 +1,14 @@
+package org.example.library.dto;
+
+/**
+ * Статистика одного кэша сервисного слоя.
+ *
+ * @param name имя кэша
+ * @param size приблизительное количество записей
+ * @param hits количество попаданий
+ * @param misses количество промахов (чтений из базы данных)
+ * @param hitRate доля попаданий от 0 до 1
+ * @param evictions количество записей, вытесненных по размеру или TTL
+ */
+public record CacheStatistics(String name, long size, long hits, long misses, double hitRate, long evictions) {
+}
@@ -0,0 +1,36 @@
+package org.example.library.dto;
+import org.example.library.model.Comment;
+
+/**
+ * Комментарий в ответах JSON API.
+ *
+ * <p>Книга передается только идентификатором: его можно получить у ленивого
+ * прокси {@code Comment.book} без загрузки книги.</p>
+ *
+ * @param id идентификатор комментария
+ * @param reader имя читателя
+ * @param rating оценка от 1 до 5
+ * @param bookId идентификатор книги
+ */
+public record CommentDto(Long id, String reader, Integer rating, Long bookId) {
+
+    /**
+     * Создает представление из сущности комментария.
+     *
+     * @param comment комментарий
+     * @return представление для ответа
+     */
+    public static CommentDto of(Comment comment) {
+        return new CommentDto(comment.getId(), comment.getReader(), comment.getRating(), comment.getBook().getId());
+    }
+
+    /**
+     * Создает представление из строки списка комментариев.
+     *
+     * @param row строка списка комментариев
+     * @return представление для ответа
+     */
+    public static CommentDto of(CommentRow row) {
+        return new CommentDto(row.id(), row.reader(), row.rating(), row.bookId());
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.library.dto;
+
+/**
+ * Поля комментария, по которым книга находится по имени читателя.
+ *
+ * @param id идентификатор комментария
+ * @param bookId идентификатор книги
+ * @param reader имя читателя
+ */
+public record CommentIndexRow(Long id, Long bookId, String reader) {
+}
@@ -0,0 +1,33 @@
+package org.example.library.dto;
+import org.example.library.model.Book;
+import org.example.library.model.Comment;
+
+/**
+ * Тело запроса JSON API на создание или изменение комментария.
+ *
+ * <p>Книга указывается идентификатором, как в форме комментария ({@code book.id}).
+ * Проверка полей выполняется по ограничениям сущности {@link Comment}.</p>
+ *
+ * @param reader имя читателя
+ * @param rating оценка от 1 до 5
+ * @param bookId идентификатор книги
+ */
+public record CommentRequest(String reader, Integer rating, Long bookId) {
+
+    /**
+     * Создает сущность комментария с полями запроса.
+     *
+     * @return новый (еще не сохраненный) комментарий
+     */
+    public Comment toEntity() {
+        Comment comment = new Comment();
+        comment.setReader(reader);
+        comment.setRating(rating);
+        if (bookId != null) {
+            Book book = new Book();
+            book.setId(bookId);
+            comment.setBook(book);
+        }
+        return comment;
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.library.dto;
+
+/**
+ * Строка списка комментариев.
+ *
+ * @param id идентификатор комментария
+ * @param reader имя читателя
+ * @param rating оценка от 1 до 5
+ * @param bookId идентификатор книги
+ * @param bookName название книги
+ * @param authorName имя автора книги
+ */
+public record CommentRow(Long id, String reader, Integer rating, Long bookId, String bookName, String authorName) {
+}
@@ -0,0 +1,11 @@
+package org.example.library.dto;
+
+/**
+ * Значение фасета и количество книг с этим значением.
+ *
+ * @param key значение параметра фильтра (жанр или идентификатор автора)
+ * @param label подпись значения
+ * @param count количество книг
+ */
+public record FacetCount(String key, String label, long count) {
+}
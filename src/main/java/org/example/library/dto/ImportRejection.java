@@ -0,0 +1,10 @@
+package org.example.library.dto;
+
+/**
+ * Отклоненная при импорте запись.
+ *
+ * @param line номер строки в файле
+ * @param reason причина отклонения
+ */
+public record ImportRejection(long line, String reason) {
+}
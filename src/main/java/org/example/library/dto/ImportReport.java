@@ -0,0 +1,17 @@
+package org.example.library.dto;
+import java.util.List;
+
+/**
+ * Итог импорта файла.
+ *
+ * @param kind тип импортированных записей
+ * @param processed количество прочитанных записей
+ * @param imported количество сохраненных записей
+ * @param rejected количество отклоненных записей
+ * @param rejections первые отклоненные записи с причинами (список ограничен по размеру)
+ * @param elapsedMillis длительность импорта в миллисекундах
+ * @param rowsPerSecond скорость обработки записей в секунду
+ */
+public record ImportReport(String kind, long processed, long imported, long rejected,
+                           List<ImportRejection> rejections, long elapsedMillis, double rowsPerSecond) {
+}
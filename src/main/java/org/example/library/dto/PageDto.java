@@ -0,0 +1,33 @@
+package org.example.library.dto;
+import org.springframework.data.domain.Slice;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница списка в ответах JSON API.
+ *
+ * <p>Как и HTML-списки, API не считает общее количество строк: признак
+ * {@code hasNext} получается запросом одной лишней строки.</p>
+ *
+ * @param content строки страницы
+ * @param page номер страницы (с нуля)
+ * @param size размер страницы
+ * @param hasNext есть ли следующая страница
+ * @param <T> тип строки
+ */
+public record PageDto<T>(List<T> content, int page, int size, boolean hasNext) {
+
+    /**
+     * Создает страницу из среза репозитория, преобразуя строки.
+     *
+     * @param slice срез
+     * @param mapper преобразование строки в представление для ответа
+     * @param <S> тип строки среза
+     * @param <T> тип строки ответа
+     * @return страница для ответа
+     */
+    public static <S, T> PageDto<T> of(Slice<S> slice, Function<S, T> mapper) {
+        return new PageDto<>(slice.getContent().stream().map(mapper).toList(),
+                slice.getNumber(), slice.getSize(), slice.hasNext());
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.library.dto;
+
+/**
+ * Строка рейтинга авторов по количеству книг.
+ *
+ * @param id идентификатор автора
+ * @param name имя автора
+ * @param bookCount количество книг автора
+ */
+public record RankedAuthor(Long id, String name, Long bookCount) {
+}
@@ -0,0 +1,13 @@
+package org.example.library.dto;
+
+/**
+ * Строка рейтинга книг.
+ *
+ * @param id идентификатор книги
+ * @param name название книги
+ * @param authorName имя автора книги
+ * @param reviewCount количество оценок, учтенных в рейтинге
+ * @param averageRating средняя оценка по этим оценкам
+ */
+public record RankedBook(Long id, String name, String authorName, Long reviewCount, Double averageRating) {
+}
@@ -0,0 +1,13 @@
+package org.example.library.dto;
+
+/**
+ * Статистика одного региона кэша второго уровня Hibernate.
+ *
+ * @param region имя региона (сущность, коллекция или кэш запросов)
+ * @param hits количество попаданий
+ * @param misses количество промахов
+ * @param puts количество записей в регион
+ * @param hitRatio доля попаданий от 0 до 1 ({@code 0}, если обращений не было)
+ */
+public record RegionStatistics(String region, long hits, long misses, long puts, double hitRatio) {
+}
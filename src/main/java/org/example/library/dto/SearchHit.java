@@ -0,0 +1,13 @@
+package org.example.library.dto;
+
+/**
+ * Книга, найденная полнотекстовым поиском.
+ *
+ * @param id идентификатор книги
+ * @param name название книги
+ * @param genre жанр книги
+ * @param authorName имя автора
+ * @param score релевантность (чем больше, тем выше в выдаче)
+ */
+public record SearchHit(Long id, String name, String genre, String authorName, double score) {
+}
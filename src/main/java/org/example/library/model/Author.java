@@ -4,6 +4,10 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -13,20 +17,27 @@ import java.util.List;
  *
  * Entity - класс сущность, будет сохраняться в БД
  * Data - генерирует геттеры,сеттеры, конструктор
+ * Cacheable, Cache - сущность хранится в кэше второго уровня Hibernate (регион authors):
+ * книги при обращении к автору не перечитывают строку authors из базы
  */
 
 @Entity
 @Table(name = "authors")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "authors")
 @Data
 public class Author {
 
     /**
      * Уникальный идентификатор автора.
      * Id - первичный ключ таблицы
-     * БД сама генерирует его
+     * Значение берется блоками из последовательности authors_seq ({@link PooledSequenceGenerator}),
+     * поэтому вставки авторов объединяются в JDBC-пакеты
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "authors_seq")
+    @GenericGenerator(name = "authors_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = "sequence_name", value = "authors_seq"))
     private Long id;
 
 
@@ -45,9 +56,11 @@ public class Author {
     /**
      * Список книг, написанных автором.
      * Используется связь "один ко многим".
-     * Книги загружаются только при обращении к ним
+     * Книги загружаются только при обращении к ним,
+     * идентификаторы книг кэшируются в регионе author-books
      */
 
     @OneToMany(mappedBy = "author", cascade = CascadeType.ALL,fetch = FetchType.LAZY )
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "author-books")
     private List<Book> books = new ArrayList<>();
 }
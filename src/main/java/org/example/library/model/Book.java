@@ -1,6 +1,10 @@
 package org.example.library.model;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import jakarta.validation.constraints.NotBlank;
@@ -11,19 +15,30 @@ import java.util.ArrayList;
 /**
  * Сущность, представляющая книгу в системе.
  * Каждая книга принадлежит одному автору и может иметь комментарии.
+ *
+ * Индекс (name, id) используется keyset-пагинацией при сортировке по названию
+ * Cacheable, Cache - сущность хранится в кэше второго уровня Hibernate (регион books)
  */
 
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = {
+        @Index(name = "idx_books_name_id", columnList = "name, id"),
+        @Index(name = "idx_books_genre_id", columnList = "genre, id"),
+        @Index(name = "idx_books_author_id", columnList = "authors_id, id")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "books")
 @Data
 
 public class Book {
 
     /**
-     * Уникальный идентификатор книги.
+     * Уникальный идентификатор книги (последовательность books_seq).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "books_seq")
+    @GenericGenerator(name = "books_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = "sequence_name", value = "books_seq"))
     private Long id;
 
     /**
@@ -46,16 +61,20 @@ public class Book {
 
     /**
      * Автор книги. Обязательное поле.
+     * Загружается лениво: списки книг подгружают авторов одним запросом
+     * через методы репозитория с {@code @EntityGraph}, а не отдельным SELECT на каждую строку.
      */
     @NotNull(message = "Автор должен быть указан")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "authors_id", nullable = false)
     private Author author;
 
 
     /**
      * Комментарии к книге.
+     * Идентификаторы комментариев кэшируются в регионе book-comments.
      */
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL,fetch = FetchType.LAZY )
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book-comments")
     private List<Comment> comments = new ArrayList<>();
 }
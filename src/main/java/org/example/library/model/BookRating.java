@@ -0,0 +1,112 @@
+package org.example.library.model;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Сводка оценок книги: количество отзывов, сумма оценок и гистограмма от 1 до 5.
+ *
+ * <p>Обновляется инкрементально при каждом сохранении и удалении комментария,
+ * поэтому средняя оценка книги читается одной строкой по первичному ключу,
+ * без обхода таблицы комментариев.</p>
+ *
+ * Id - идентификатор книги, к которой относится сводка
+ * NoArgsConstructor - конструктор без параметров, необходимый JPA
+ */
+@Entity
+@Table(name = "book_ratings")
+@Data
+@NoArgsConstructor
+public class BookRating {
+
+    /**
+     * Идентификатор книги.
+     */
+    @Id
+    @Column(name = "books_id")
+    private Long bookId;
+
+    /**
+     * Количество комментариев с оценкой.
+     */
+    @Column(name = "review_count", nullable = false)
+    private long reviewCount;
+
+    /**
+     * Сумма всех оценок.
+     */
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    /**
+     * Количество оценок 1, 2, 3, 4 и 5.
+     */
+    @Column(name = "stars_1", nullable = false)
+    private long stars1;
+
+    @Column(name = "stars_2", nullable = false)
+    private long stars2;
+
+    @Column(name = "stars_3", nullable = false)
+    private long stars3;
+
+    @Column(name = "stars_4", nullable = false)
+    private long stars4;
+
+    @Column(name = "stars_5", nullable = false)
+    private long stars5;
+
+    /**
+     * Создает пустую сводку для книги.
+     *
+     * @param bookId идентификатор книги
+     */
+    public BookRating(Long bookId) {
+        this.bookId = bookId;
+    }
+
+    /**
+     * Средняя оценка книги.
+     *
+     * @return средняя оценка или {@code 0}, если отзывов нет
+     */
+    public double getAverage() {
+        return reviewCount == 0 ? 0 : (double) ratingSum / reviewCount;
+    }
+
+    /**
+     * Количество оценок с указанным значением.
+     *
+     * @param rating оценка от 1 до 5
+     * @return количество таких оценок
+     */
+    public long getStars(int rating) {
+        return switch (rating) {
+            case 1 -> stars1;
+            case 2 -> stars2;
+            case 3 -> stars3;
+            case 4 -> stars4;
+            case 5 -> stars5;
+            default -> throw new IllegalArgumentException("Оценка должна быть от 1 до 5: " + rating);
+        };
+    }
+
+    /**
+     * Учитывает в сводке добавление ({@code delta = 1}) или удаление ({@code delta = -1}) оценки.
+     *
+     * @param rating оценка от 1 до 5
+     * @param delta изменение количества оценок
+     */
+    public void apply(int rating, long delta) {
+        switch (rating) {
+            case 1 -> stars1 += delta;
+            case 2 -> stars2 += delta;
+            case 3 -> stars3 += delta;
+            case 4 -> stars4 += delta;
+            case 5 -> stars5 += delta;
+            default -> throw new IllegalArgumentException("Оценка должна быть от 1 до 5: " + rating);
+        }
+        reviewCount += delta;
+        ratingSum += delta * rating;
+    }
+}
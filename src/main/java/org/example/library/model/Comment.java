@@ -1,27 +1,44 @@
 package org.example.library.model;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
 
 /**
  * Сущность, представляющая комментарий/отзыв к книге.
  * Каждый комментарий связан с одной книгой и одним читателем.
+ *
+ * Индекс (rating DESC, id) повторяет порядок списка при сортировке по оценке и используется
+ * keyset-пагинацией без сортировки результата,
+ * индекс по created_at - рейтингом самых обсуждаемых книг за неделю
+ * Cacheable, Cache - сущность хранится в кэше второго уровня Hibernate (регион comments)
  */
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = {
+        @Index(name = "idx_comments_rating_desc_id", columnList = "rating DESC, id"),
+        @Index(name = "idx_comments_created_at", columnList = "created_at")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "comments")
 @Data
 public class Comment {
 
     /**
-     * Уникальный идентификатор комментария.
+     * Уникальный идентификатор комментария (последовательность comments_seq).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "comments_seq")
+    @GenericGenerator(name = "comments_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = "sequence_name", value = "comments_seq"))
     private Long id;
 
 
@@ -48,9 +65,30 @@ public class Comment {
 
     /**
      * Книга, к которой оставлен комментарий.
+     * Загружается лениво, списки комментариев подгружают книгу и ее автора
+     * через методы репозитория с {@code @EntityGraph}.
      */
     @NotNull(message = "Книга должна быть указана")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "books_id", nullable = false)
     private Book book;
+
+
+    /**
+     * Время создания комментария. Заполняется автоматически при первом сохранении
+     * и не изменяется при редактировании.
+     */
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    /**
+     * Заполняет время создания перед вставкой записи.
+     * PrePersist - метод вызывается Hibernate перед сохранением новой сущности
+     */
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
 }
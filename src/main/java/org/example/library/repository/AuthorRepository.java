@@ -1,6 +1,18 @@
 package org.example.library.repository;
+import org.example.library.dto.AuthorOption;
+import org.example.library.dto.RankedAuthor;
 import org.example.library.model.Author;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 import org.springframework.stereotype.Repository;
 /**
  * Репозиторий для работы с сущностью {@link Author}.
@@ -25,4 +37,71 @@ public interface AuthorRepository extends JpaRepository<Author, Long> {
      * @return {@code true} если автор с таким именем существует, {@code false} в противном случае
      */
     boolean existsByName(String name);
-}
\ No newline at end of file
+
+    /**
+     * Возвращает одну страницу авторов в виде проекций {@link AuthorOption}.
+     *
+     * <p>В отличие от {@code findAll(Pageable)} возвращает {@link Slice}: Spring Data
+     * запрашивает на одну строку больше размера страницы, чтобы узнать о наличии
+     * следующей, и не выполняет {@code SELECT COUNT(*)} по всей таблице.</p>
+     *
+     * @param pageable номер, размер страницы и сортировка
+     * @return срез авторов
+     */
+    @Query("SELECT new org.example.library.dto.AuthorOption(a.id, a.name) FROM Author a")
+    Slice<AuthorOption> findOptions(Pageable pageable);
+
+    /**
+     * Находит авторов, имя которых начинается с указанного префикса (для подсказок при вводе).
+     *
+     * <p>Условие {@code name LIKE 'префикс%'} выполняется поиском по уникальному индексу
+     * на столбце {@code name}, поэтому стоимость запроса не зависит от размера таблицы.
+     * Спецсимволы {@code %} и {@code _} в префиксе экранируются Spring Data.</p>
+     *
+     * @param prefix начало имени
+     * @param limit максимальное количество подсказок
+     * @return авторы в алфавитном порядке
+     */
+    List<AuthorOption> findByNameStartingWithOrderByNameAsc(String prefix, Limit limit);
+
+    /**
+     * Находит идентификатор и имя автора по идентификатору.
+     *
+     * @param id идентификатор автора
+     * @return проекция автора или пустой {@link Optional}
+     */
+    @Query("SELECT new org.example.library.dto.AuthorOption(a.id, a.name) FROM Author a WHERE a.id = :id")
+    Optional<AuthorOption> findOptionById(@Param("id") Long id);
+
+    /**
+     * Возвращает авторов с наибольшим количеством книг.
+     *
+     * @param limit размер рейтинга
+     * @return авторы по убыванию количества книг
+     */
+    @Query("SELECT new org.example.library.dto.RankedAuthor(a.id, a.name, COUNT(b)) "
+            + "FROM Book b JOIN b.author a GROUP BY a.id, a.name ORDER BY COUNT(b) DESC, a.id")
+    List<RankedAuthor> findMostProlific(Limit limit);
+
+    /**
+     * Последовательно читает идентификаторы и имена всех авторов.
+     *
+     * <p>Строки не собираются в список: поток должен читаться внутри транзакции и быть закрыт.</p>
+     *
+     * @return поток проекций авторов
+     */
+    @Query("SELECT new org.example.library.dto.AuthorOption(a.id, a.name) FROM Author a")
+    Stream<AuthorOption> streamOptions();
+
+    /**
+     * Удаляет авторов по идентификаторам одним запросом.
+     *
+     * <p>Книги авторов (с комментариями и сводками оценок) должны быть удалены раньше.</p>
+     *
+     * @param ids идентификаторы авторов
+     * @return количество удаленных авторов
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Author a WHERE a.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,46 @@
+package org.example.library.repository;
+import org.example.library.model.BookRating;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+/**
+ * Репозиторий для работы со сводками оценок книг {@link BookRating}.
+ *
+ * <p>Сводки записываются периодически из счетчиков в памяти
+ * (см. {@code RatingCounters}); репозиторий создает и удаляет строки вместе с книгами.</p>
+ */
+@Repository
+public interface BookRatingRepository extends JpaRepository<BookRating, Long> {
+    /**
+     * Находит идентификаторы книг указанных авторов, у которых есть сводки.
+     *
+     * @param authorIds идентификаторы авторов
+     * @return идентификаторы книг
+     */
+    @Query("SELECT r.bookId FROM BookRating r WHERE r.bookId IN (SELECT b.id FROM Book b WHERE b.author.id IN :authorIds)")
+    List<Long> findBookIdsByAuthorIds(@Param("authorIds") Collection<Long> authorIds);
+
+    /**
+     * Удаляет сводки всех книг указанных авторов одним запросом.
+     *
+     * @param authorIds идентификаторы авторов
+     * @return количество удаленных сводок
+     */
+    @Modifying
+    @Query("DELETE FROM BookRating r WHERE r.bookId IN (SELECT b.id FROM Book b WHERE b.author.id IN :authorIds)")
+    int deleteByAuthorIds(@Param("authorIds") Collection<Long> authorIds);
+
+    /**
+     * Удаляет сводки указанных книг одним запросом.
+     *
+     * @param bookIds идентификаторы книг
+     * @return количество удаленных сводок
+     */
+    @Modifying
+    @Query("DELETE FROM BookRating r WHERE r.bookId IN :bookIds")
+    int deleteByBookIds(@Param("bookIds") Collection<Long> bookIds);
+}
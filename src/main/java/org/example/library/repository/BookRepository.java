@@ -1,7 +1,24 @@
 package org.example.library.repository;
+import org.example.library.dto.BookIndexRow;
+import org.example.library.dto.BookOption;
+import org.example.library.dto.BookRow;
+import org.example.library.dto.RankedBook;
 import org.example.library.model.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 import org.springframework.stereotype.Repository;
 /**
  * Репозиторий для работы с сущностью {@link Book}.
@@ -9,9 +26,21 @@ import org.springframework.stereotype.Repository;
  *
  * <p>Предоставляет как стандартные CRUD операции через {@link JpaRepository},
  * так и кастомные методы для поиска книг по автору.</p>
+ *
+ * <p>Списки выводятся из проекций {@link BookRow} и {@link BookOption}: имя автора
+ * выбирается тем же запросом через JOIN, страница выполняется одним SQL-запросом (без N+1),
+ * а строки не становятся управляемыми сущностями.</p>
  */
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long>{
+    /**
+     * Начало запроса строк списка книг: имя автора и сводка оценок
+     * выбираются тем же запросом через JOIN.
+     */
+    String ROW_QUERY = "SELECT new org.example.library.dto.BookRow(b.id, b.name, b.genre, a.id, a.name, "
+            + "COALESCE(r.reviewCount, 0L), COALESCE(r.ratingSum, 0L)) "
+            + "FROM Book b JOIN b.author a LEFT JOIN BookRating r ON r.bookId = b.id ";
+
     /**
      * Находит все книги, принадлежащие указанному автору.
      *
@@ -22,8 +51,258 @@ public interface BookRepository extends JpaRepository<Book, Long>{
      * <p>Этот метод эквивалентен JPQL запросу:
      * {@code SELECT b FROM Book b WHERE b.author.id = :authorId}</p>
      *
+     * <p>Автор загружается тем же запросом: результат кэшируется и используется
+     * вне сессии Hibernate. Результат запроса хранится в кэше запросов Hibernate
+     * и сбрасывается при любом изменении таблицы books.</p>
+     *
      * @param authorId идентификатор автора, чьи книги нужно найти
      * @return список книг указанного автора
      */
+    @EntityGraph(attributePaths = "author")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Book> findByAuthorId(Long authorId);
+
+    /**
+     * Находит книгу вместе с автором одним запросом.
+     *
+     * <p>Используется для кэшируемого чтения: у книги в кэше нет сессии Hibernate,
+     * поэтому ленивую связь с автором нужно загрузить заранее.</p>
+     *
+     * @param id идентификатор книги
+     * @return книга с загруженным автором
+     */
+    @EntityGraph(attributePaths = "author")
+    Optional<Book> findWithAuthorById(Long id);
+
+    /**
+     * Возвращает идентификаторы книг автора (для очистки кэшей связанных записей).
+     *
+     * @param authorId идентификатор автора
+     * @return идентификаторы книг автора
+     */
+    @Query("SELECT b.id FROM Book b WHERE b.author.id = :authorId")
+    List<Long> findIdsByAuthorId(@Param("authorId") Long authorId);
+
+    /**
+     * Возвращает идентификатор автора книги без загрузки сущностей.
+     *
+     * @param id идентификатор книги
+     * @return идентификатор автора или пустой результат, если книги нет
+     */
+    @Query("SELECT b.author.id FROM Book b WHERE b.id = :id")
+    Optional<Long> findAuthorIdById(@Param("id") Long id);
+
+    /**
+     * Возвращает идентификаторы авторов указанных книг без повторов.
+     *
+     * @param ids идентификаторы книг
+     * @return идентификаторы авторов
+     */
+    @Query("SELECT DISTINCT b.author.id FROM Book b WHERE b.id IN :ids")
+    List<Long> findAuthorIdsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Возвращает одну страницу строк списка книг без подсчета общего количества строк.
+     *
+     * @param pageable номер, размер страницы и сортировка
+     * @return срез строк списка книг
+     */
+    @Query(ROW_QUERY)
+    Slice<BookRow> findRows(Pageable pageable);
+
+    /**
+     * Возвращает одну страницу строк книг указанного жанра (по индексу idx_books_genre_id).
+     *
+     * @param genre жанр
+     * @param pageable номер, размер страницы и сортировка
+     * @return срез строк списка книг
+     */
+    @Query(ROW_QUERY + "WHERE b.genre = :genre")
+    Slice<BookRow> findRowsByGenre(@Param("genre") String genre, Pageable pageable);
+
+    /**
+     * Возвращает одну страницу строк книг автора (по индексу idx_books_author_id).
+     *
+     * @param authorId идентификатор автора
+     * @param pageable номер, размер страницы и сортировка
+     * @return срез строк списка книг
+     */
+    @Query(ROW_QUERY + "WHERE b.author.id = :authorId")
+    Slice<BookRow> findRowsByAuthorId(@Param("authorId") Long authorId, Pageable pageable);
+
+    /**
+     * Возвращает одну страницу строк книг автора в указанном жанре.
+     *
+     * @param genre жанр
+     * @param authorId идентификатор автора
+     * @param pageable номер, размер страницы и сортировка
+     * @return срез строк списка книг
+     */
+    @Query(ROW_QUERY + "WHERE b.genre = :genre AND b.author.id = :authorId")
+    Slice<BookRow> findRowsByGenreAndAuthorId(@Param("genre") String genre, @Param("authorId") Long authorId,
+                                              Pageable pageable);
+
+    /**
+     * Находит книги, название которых начинается с указанного префикса (для подсказок при вводе).
+     *
+     * <p>Условие {@code name LIKE 'префикс%'} выполняется по индексу {@code (name, id)}.
+     * Спецсимволы {@code %} и {@code _} в префиксе экранируются.</p>
+     *
+     * @param prefix начало названия
+     * @param limit максимальное количество подсказок
+     * @return книги с именами авторов в алфавитном порядке
+     */
+    @Query("SELECT new org.example.library.dto.BookOption(b.id, b.name, a.name) FROM Book b JOIN b.author a "
+            + "WHERE b.name LIKE ?#{escape([0])}% ESCAPE ?#{escapeCharacter()} ORDER BY b.name, b.id")
+    List<BookOption> findOptionsByNamePrefix(String prefix, Limit limit);
+
+    /**
+     * Находит строку книги (с именем автора и сводкой оценок) по идентификатору.
+     *
+     * @param id идентификатор книги
+     * @return строка книги или пустой {@link Optional}
+     */
+    @Query(ROW_QUERY + "WHERE b.id = :id")
+    Optional<BookRow> findRowById(@Param("id") Long id);
+
+    /**
+     * Находит строки нескольких книг одним запросом.
+     *
+     * @param ids идентификаторы книг
+     * @return строки книг в порядке идентификаторов
+     */
+    @Query(ROW_QUERY + "WHERE b.id IN :ids ORDER BY b.id")
+    List<BookRow> findRowsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Находит название книги и имя ее автора по идентификатору книги.
+     *
+     * @param id идентификатор книги
+     * @return проекция книги или пустой {@link Optional}
+     */
+    @Query("SELECT new org.example.library.dto.BookOption(b.id, b.name, a.name) FROM Book b JOIN b.author a "
+            + "WHERE b.id = :id")
+    Optional<BookOption> findOptionById(@Param("id") Long id);
+
+    /**
+     * Последовательно читает идентификаторы, названия и авторов всех книг.
+     *
+     * <p>Строки не собираются в список: поток должен читаться внутри транзакции и быть закрыт.</p>
+     *
+     * @return поток проекций книг
+     */
+    @Query("SELECT new org.example.library.dto.BookOption(b.id, b.name, a.name) FROM Book b JOIN b.author a")
+    Stream<BookOption> streamOptions();
+
+    /**
+     * Последовательно читает строки всех книг с именем автора и сводкой оценок в порядке id.
+     *
+     * <p>Строки читаются курсором JDBC порциями по {@code fetch_size} и не становятся
+     * управляемыми сущностями, поэтому память не зависит от размера таблицы.
+     * Поток должен читаться внутри транзакции и быть закрыт.</p>
+     *
+     * @return поток строк книг
+     */
+    @Query(ROW_QUERY + "ORDER BY b.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<BookRow> streamRows();
+
+    /**
+     * Читает поля всех книг для построения поискового индекса.
+     *
+     * <p>Строки не собираются в список: поток должен читаться внутри транзакции и быть закрыт.</p>
+     *
+     * @return поток строк индекса
+     */
+    @Query("SELECT new org.example.library.dto.BookIndexRow(b.id, b.name, b.genre, b.author.id) FROM Book b")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<BookIndexRow> streamIndexRows();
+
+    /**
+     * Возвращает все книги вместе с их авторами одним запросом.
+     *
+     * <p>Используйте для операций над сущностями; для вывода списков
+     * предназначены проекции {@link #findRows(Pageable)}.</p>
+     *
+     * @return список всех книг с загруженными авторами
+     */
+    @Query("SELECT b FROM Book b JOIN FETCH b.author")
+    List<Book> findAllWithAuthor();
+
+    /**
+     * Возвращает строки списка книг, следующие за указанным идентификатором (keyset-пагинация).
+     *
+     * <p>Условие по первичному ключу выполняется поиском по индексу,
+     * без пропуска предыдущих строк, как при {@code OFFSET}.</p>
+     *
+     * @param lastId идентификатор последней показанной книги ({@code 0} для первой страницы)
+     * @param limit максимальное количество строк
+     * @return строки в порядке возрастания id
+     */
+    @Query(ROW_QUERY + "WHERE b.id > :lastId ORDER BY b.id")
+    List<BookRow> findNextById(@Param("lastId") Long lastId, Limit limit);
+
+    /**
+     * Возвращает строки списка книг, следующие за позицией {@code (name, id)} в порядке сортировки по названию.
+     *
+     * <p>Составной курсор нужен, потому что названия книг не уникальны:
+     * при равных названиях порядок определяется идентификатором. Условие
+     * {@code name >= :lastName} задает начало просмотра индекса {@code (name, id)},
+     * уточнение отбрасывает уже показанные книги с тем же названием. Равносильная форма
+     * {@code name > :lastName OR (...)} не дает базе диапазона по индексу.</p>
+     *
+     * @param lastName название последней показанной книги (пустая строка для первой страницы)
+     * @param lastId идентификатор последней показанной книги
+     * @param limit максимальное количество строк
+     * @return строки в порядке (name, id)
+     */
+    @Query(ROW_QUERY + "WHERE b.name >= :lastName AND (b.name > :lastName OR b.id > :lastId) "
+            + "ORDER BY b.name, b.id")
+    List<BookRow> findNextByName(@Param("lastName") String lastName, @Param("lastId") Long lastId, Limit limit);
+
+    /**
+     * Возвращает книги с наибольшей средней оценкой среди книг с достаточным количеством оценок.
+     *
+     * <p>Читает предвычисленные сводки {@code book_ratings}, а не комментарии.</p>
+     *
+     * @param minReviews минимальное количество оценок
+     * @param limit размер рейтинга
+     * @return книги по убыванию средней оценки
+     */
+    @Query("SELECT new org.example.library.dto.RankedBook(b.id, b.name, a.name, r.reviewCount, "
+            + "CAST(r.ratingSum AS Double) / r.reviewCount) "
+            + "FROM BookRating r JOIN Book b ON b.id = r.bookId JOIN b.author a "
+            + "WHERE r.reviewCount >= :minReviews "
+            + "ORDER BY CAST(r.ratingSum AS Double) / r.reviewCount DESC, r.reviewCount DESC, b.id")
+    List<RankedBook> findTopRated(@Param("minReviews") long minReviews, Limit limit);
+
+    /**
+     * Удаляет книги по идентификаторам одним запросом.
+     *
+     * <p>Комментарии и сводки оценок этих книг должны быть удалены раньше.</p>
+     *
+     * @param ids идентификаторы книг
+     * @return количество удаленных книг
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Book b WHERE b.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Удаляет все книги указанных авторов одним запросом.
+     *
+     * <p>Комментарии и сводки оценок этих книг должны быть удалены раньше.</p>
+     *
+     * @param authorIds идентификаторы авторов
+     * @return количество удаленных книг
+     */
+    @Modifying
+    @Query("DELETE FROM Book b WHERE b.author.id IN :authorIds")
+    int deleteByAuthorIds(@Param("authorIds") Collection<Long> authorIds);
 }
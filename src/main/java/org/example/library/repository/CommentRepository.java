@@ -1,7 +1,23 @@
 package org.example.library.repository;
+import org.example.library.dto.CommentIndexRow;
+import org.example.library.dto.CommentRow;
+import org.example.library.dto.RankedBook;
 import org.example.library.model.Comment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 import org.springframework.stereotype.Repository;
 /**
  * Репозиторий для работы с сущностью {@link Comment}.
@@ -9,9 +25,19 @@ import org.springframework.stereotype.Repository;
  *
  * <p>Предоставляет стандартные CRUD операции и специальные методы
  * для поиска комментариев по связанной книге.</p>
+ *
+ * <p>Списки выводятся из проекций {@link CommentRow}: название книги и имя ее автора
+ * выбираются тем же запросом через JOIN, без отдельного SELECT на каждую строку.</p>
  */
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long>  {
+    /**
+     * Начало запроса строк списка комментариев: название книги и имя автора
+     * выбираются тем же запросом через JOIN.
+     */
+    String ROW_QUERY = "SELECT new org.example.library.dto.CommentRow(c.id, c.reader, c.rating, b.id, b.name, a.name) "
+            + "FROM Comment c JOIN c.book b JOIN b.author a ";
+
     /**
      * Находит все комментарии, относящиеся к указанной книге.
      *
@@ -21,8 +47,163 @@ public interface CommentRepository extends JpaRepository<Comment, Long>  {
      * <p>Эквивалентный запрос:
      * {@code SELECT c FROM Comment c WHERE c.book.id = :bookId}</p>
      *
+     * <p>Книга и ее автор загружаются тем же запросом: результат кэшируется
+     * и используется вне сессии Hibernate. Результат запроса хранится в кэше
+     * запросов Hibernate и сбрасывается при любом изменении таблицы comments.</p>
+     *
      * @param bookId идентификатор книги, для которой нужно найти комментарии
      * @return список комментариев для указанной книги (может быть пустым)
      */
+    @EntityGraph(attributePaths = {"book", "book.author"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Comment> findByBookId(Long bookId);
+
+    /**
+     * Возвращает одну страницу строк списка комментариев без подсчета общего количества строк.
+     *
+     * @param pageable номер, размер страницы и сортировка
+     * @return срез строк списка комментариев
+     */
+    @Query(ROW_QUERY)
+    Slice<CommentRow> findRows(Pageable pageable);
+
+    /**
+     * Возвращает одну страницу строк комментариев к указанной книге.
+     *
+     * @param bookId идентификатор книги
+     * @param pageable номер, размер страницы и сортировка
+     * @return срез строк комментариев книги
+     */
+    @Query(ROW_QUERY + "WHERE b.id = :bookId")
+    Slice<CommentRow> findRowsByBookId(@Param("bookId") Long bookId, Pageable pageable);
+
+    /**
+     * Возвращает все комментарии вместе с книгами и авторами книг одним запросом.
+     *
+     * @return список всех комментариев с загруженными книгами и авторами
+     */
+    @Query("SELECT c FROM Comment c JOIN FETCH c.book b JOIN FETCH b.author")
+    List<Comment> findAllWithBookAndAuthor();
+
+    /**
+     * Возвращает строки списка комментариев, следующие за указанным идентификатором (keyset-пагинация).
+     *
+     * @param lastId идентификатор последнего показанного комментария ({@code 0} для первой страницы)
+     * @param limit максимальное количество строк
+     * @return строки в порядке возрастания id
+     */
+    @Query(ROW_QUERY + "WHERE c.id > :lastId ORDER BY c.id")
+    List<CommentRow> findNextById(@Param("lastId") Long lastId, Limit limit);
+
+    /**
+     * Возвращает строки списка комментариев с указанной оценкой, следующие за идентификатором.
+     *
+     * <p>Первая часть страницы при сортировке от высокой оценки к низкой: оставшиеся строки
+     * с оценкой последнего показанного комментария. Условие {@code rating = ... AND id > ...}
+     * выполняется поиском по индексу {@code (rating DESC, id)} сразу к нужной позиции.
+     * Общее условие {@code rating < ... OR (rating = ... AND id > ...)} база по индексу
+     * не ищет, и каждая страница просматривала бы все предыдущие строки.</p>
+     *
+     * @param rating оценка последнего показанного комментария
+     * @param lastId идентификатор последнего показанного комментария
+     * @param limit максимальное количество строк
+     * @return строки в порядке возрастания id
+     */
+    @Query(ROW_QUERY + "WHERE c.rating = :rating AND c.id > :lastId ORDER BY c.rating DESC, c.id")
+    List<CommentRow> findNextWithRating(@Param("rating") Integer rating, @Param("lastId") Long lastId, Limit limit);
+
+    /**
+     * Возвращает строки списка комментариев с оценкой не выше указанной, от высокой к низкой.
+     *
+     * <p>Продолжение страницы после {@link #findNextWithRating}. Граница задается нестрогим
+     * условием: строгое {@code <} по убывающему индексу H2 начинает просмотр с первой
+     * строки граничной оценки.</p>
+     *
+     * @param maxRating наибольшая оценка
+     * @param limit максимальное количество строк
+     * @return строки в порядке (rating DESC, id)
+     */
+    @Query(ROW_QUERY + "WHERE c.rating <= :maxRating ORDER BY c.rating DESC, c.id")
+    List<CommentRow> findFromRating(@Param("maxRating") Integer maxRating, Limit limit);
+
+    /**
+     * Возвращает книги, получившие больше всего комментариев начиная с указанного момента.
+     *
+     * <p>Отбор строк выполняется по индексу {@code created_at}.</p>
+     *
+     * @param since начало периода
+     * @param limit размер рейтинга
+     * @return книги по убыванию количества комментариев за период
+     */
+    @Query("SELECT new org.example.library.dto.RankedBook(b.id, b.name, a.name, COUNT(c), AVG(c.rating)) "
+            + "FROM Comment c JOIN c.book b JOIN b.author a WHERE c.createdAt >= :since "
+            + "GROUP BY b.id, b.name, a.name ORDER BY COUNT(c) DESC, b.id")
+    List<RankedBook> findMostCommentedSince(@Param("since") Instant since, Limit limit);
+
+    /**
+     * Подсчитывает оценки указанных комментариев по книгам: строки
+     * {@code [идентификатор книги, оценка, количество]}.
+     *
+     * <p>Используется, чтобы перед массовым удалением комментариев убрать их оценки
+     * из сводок одним обновлением на книгу.</p>
+     *
+     * @param ids идентификаторы комментариев
+     * @return количество оценок по книге и значению оценки
+     */
+    @Query("SELECT c.book.id, c.rating, COUNT(c) FROM Comment c WHERE c.id IN :ids GROUP BY c.book.id, c.rating")
+    List<Object[]> countRatingsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Подсчитывает все оценки по книгам: строки {@code [идентификатор книги, оценка, количество]}.
+     *
+     * <p>Используется для построения счетчиков оценок при запуске и для проверки сводок.</p>
+     *
+     * @return количество оценок по книге и значению оценки
+     */
+    @Query("SELECT c.book.id, c.rating, COUNT(c) FROM Comment c GROUP BY c.book.id, c.rating")
+    List<Object[]> countRatings();
+
+    /**
+     * Удаляет комментарии по идентификаторам одним запросом.
+     *
+     * @param ids идентификаторы комментариев
+     * @return количество удаленных комментариев
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Comment c WHERE c.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Удаляет все комментарии к указанным книгам одним запросом.
+     *
+     * @param bookIds идентификаторы книг
+     * @return количество удаленных комментариев
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Comment c WHERE c.book.id IN :bookIds")
+    int deleteByBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    /**
+     * Удаляет все комментарии к книгам указанных авторов одним запросом.
+     *
+     * @param authorIds идентификаторы авторов
+     * @return количество удаленных комментариев
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Comment c WHERE c.book.id IN (SELECT b.id FROM Book b WHERE b.author.id IN :authorIds)")
+    int deleteByAuthorIds(@Param("authorIds") Collection<Long> authorIds);
+
+    /**
+     * Читает имена читателей всех комментариев для построения поискового индекса.
+     *
+     * <p>Строки не собираются в список: поток должен читаться внутри транзакции и быть закрыт.</p>
+     *
+     * @return поток строк индекса
+     */
+    @Query("SELECT new org.example.library.dto.CommentIndexRow(c.id, c.book.id, c.reader) FROM Comment c")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<CommentIndexRow> streamIndexRows();
 }
@@ -1,8 +1,18 @@
 package org.example.library.service;
+import io.micrometer.core.annotation.Timed;
+import org.example.library.dto.AuthorOption;
 import org.example.library.model.Author;
 import org.example.library.repository.AuthorRepository;
+import org.example.library.repository.BookRepository;
+import org.example.library.repository.CommentRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
 /**
  * Сервисный слой для логики работы с авторами.
@@ -12,8 +22,10 @@ import java.util.List;
  * Содержит бизнес-логику, валидацию и обработку исключений
  * Service - класс сервисный компонент, класс содержит логику, для инъекции
  * зависимостей в другие компоненты
+ * Timed - время выполнения каждого публичного метода записывается в метрику library.service
  */
 @Service
+@Timed(value = "library.service", percentiles = {0.5, 0.95, 0.99})
 @RequiredArgsConstructor
 public class AuthorService {
     /**
@@ -23,6 +35,41 @@ public class AuthorService {
      */
     private final AuthorRepository authorRepository;
 
+    /**
+     * Сервис сводок оценок: сводки книг удаляются вместе с автором.
+     */
+    private final RatingService ratingService;
+
+    /**
+     * Репозиторий книг: книги автора удаляются вместе с ним и очищаются из кэшей.
+     */
+    private final BookRepository bookRepository;
+
+    /**
+     * Репозиторий комментариев: комментарии к книгам удаляются вместе с автором.
+     */
+    private final CommentRepository commentRepository;
+
+    /**
+     * Кэши сервисного слоя, очищаемые при изменении автора.
+     */
+    private final LibraryCaches libraryCaches;
+
+    /**
+     * Поисковый индекс: книги находятся по имени автора.
+     */
+    private final SearchIndex searchIndex;
+
+    /**
+     * Версии сущностей для условных HTTP-запросов.
+     */
+    private final EntityVersions entityVersions;
+
+    /**
+     * Максимальное количество подсказок при вводе имени автора.
+     */
+    public static final int SUGGEST_LIMIT = 10;
+
     /**
      * Получает список всех авторов из базы данных.
      *
@@ -34,13 +81,53 @@ public class AuthorService {
         return authorRepository.findAll();
     }
 
+    /**
+     * Получает одну страницу авторов для списка.
+     *
+     * <p>Загружает только строки запрошенной страницы, поэтому время ответа
+     * и потребление памяти не зависят от размера таблицы.</p>
+     *
+     * @param pageable номер, размер страницы и сортировка
+     * @return срез авторов (может быть пустым)
+     */
+    public Slice<AuthorOption> findPage(Pageable pageable) {
+        return authorRepository.findOptions(pageable);
+    }
+
+    /**
+     * Подбирает авторов по началу имени для поля ввода с подсказками.
+     *
+     * <p>Поиск выполняется по индексу {@code LIKE 'префикс%'} для введенного текста
+     * и для варианта с заглавной первой буквой.</p>
+     *
+     * @param query введенный пользователем текст
+     * @return не более {@value #SUGGEST_LIMIT} авторов
+     */
+    public List<AuthorOption> suggest(String query) {
+        return Suggestions.find(query, SUGGEST_LIMIT,
+                prefix -> authorRepository.findByNameStartingWithOrderByNameAsc(prefix, Limit.of(SUGGEST_LIMIT)));
+    }
+
+    /**
+     * Находит идентификатор и имя автора (например, для подписи выбранного значения в форме).
+     *
+     * @param id идентификатор автора
+     * @return проекция автора или {@code null} если не найден
+     */
+    public AuthorOption findOption(Long id) {
+        return id == null ? null : authorRepository.findOptionById(id).orElse(null);
+    }
+
     /**
      * Находит автора по его идентификатору.
      *
+     * <p>Результат кэшируется в {@value LibraryCaches#AUTHORS}; отсутствующий автор не кэшируется.</p>
+     *
      * @param id идентификатор автора для поиска
      * @return найденный автор или {@code null} если не найден
      */
 
+    @Cacheable(cacheNames = LibraryCaches.AUTHORS, unless = "#result == null")
     public Author findById(Long id) {
         return authorRepository.findById(id).orElse(null);
     }
@@ -48,23 +135,88 @@ public class AuthorService {
     /**
      * Сохраняет (создает или обновляет) автора в базе данных.
      *
-     * <p>Делегирует операцию репозиторию
+     * <p>При изменении существующего автора из кэшей удаляются сам автор
+     * и записи его книг, которые содержат имя автора. Имя автора обновляется
+     * в поисковом индексе после фиксации транзакции.</p>
      *
      * @param author объект автора для сохранения
      * @return сохраненный автор (с присвоенным ID если это новая запись)
      */
 
+    @Transactional
     public Author save(Author author) {
-        return authorRepository.save(author);
+        if (author.getId() != null) {
+            libraryCaches.evictAuthorWithBooks(author.getId(), bookRepository.findIdsByAuthorId(author.getId()));
+        }
+        Author saved = authorRepository.save(author);
+        entityVersions.bump(EntityVersions.Kind.AUTHORS);
+        searchIndex.indexAuthors(List.of(new AuthorOption(saved.getId(), saved.getName())));
+        return saved;
     }
 
+    /**
+     * Сохраняет несколько новых авторов в одной транзакции.
+     *
+     * <p>Идентификаторы выделяются из последовательности блоками, поэтому вставки
+     * отправляются пакетами JDBC.</p>
+     *
+     * @param authors новые авторы
+     * @return сохраненные авторы с присвоенными идентификаторами
+     */
+    @Transactional
+    public List<Author> saveAll(List<Author> authors) {
+        List<Author> saved = authorRepository.saveAll(authors);
+        entityVersions.bump(EntityVersions.Kind.AUTHORS);
+        searchIndex.indexAuthors(saved.stream()
+                .map(author -> new AuthorOption(author.getId(), author.getName()))
+                .toList());
+        return saved;
+    }
 
     /**
      * Удаляет автора по идентификатору.
      *
+     * <p>Вместе с автором удаляются его книги, комментарии к ним и сводки их оценок,
+     * а из кэшей - автор, его книги и комментарии к ним.</p>
+     *
      * @param id идентификатор автора для удаления
      */
+    @Transactional
     public void deleteById(Long id) {
-        authorRepository.deleteById(id);
+        libraryCaches.evictAuthorWithBooks(id, bookRepository.findIdsByAuthorId(id));
+        deleteCascade(List.of(id));
+    }
+
+    /**
+     * Удаляет нескольких авторов вместе с их книгами, комментариями и сводками оценок.
+     *
+     * <p>Каждая таблица очищается одним запросом {@code DELETE ... WHERE ... IN}
+     * в порядке зависимостей, без загрузки сущностей в контекст и каскада по одной строке.
+     * Авторы и списки их книг удаляются из кэшей по ключу, кэши книг и комментариев
+     * очищаются целиком после фиксации.</p>
+     *
+     * @param ids идентификаторы авторов
+     * @return количество удаленных авторов
+     */
+    @Transactional
+    public int deleteAll(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        for (Long id : ids) {
+            libraryCaches.evictAuthor(id);
+            libraryCaches.evictBooksByAuthor(id);
+        }
+        libraryCaches.clearBooksAndComments();
+        return deleteCascade(ids);
+    }
+
+    private int deleteCascade(Collection<Long> ids) {
+        commentRepository.deleteByAuthorIds(ids);
+        ratingService.deleteByAuthorIds(ids);
+        bookRepository.deleteByAuthorIds(ids);
+        entityVersions.bump(EntityVersions.Kind.AUTHORS, EntityVersions.Kind.BOOKS, EntityVersions.Kind.COMMENTS);
+        searchIndex.removeAuthors(ids);
+        return authorRepository.deleteByIds(ids);
     }
 }
@@ -1,8 +1,22 @@
 package org.example.library.service;
+import io.micrometer.core.annotation.Timed;
+import org.example.library.dto.BookIndexRow;
+import org.example.library.dto.BookOption;
+import org.example.library.dto.BookRow;
+import org.example.library.dto.FacetCount;
 import org.example.library.model.Book;
 import org.example.library.repository.BookRepository;
+import org.example.library.repository.CommentRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
 /**
  * Сервисный слой для бизнес-логики работы с книгами.
@@ -12,6 +26,7 @@ import java.util.List;
  * <p>Реализует логику работы с книгами, включая связи с авторами и комментариями.</p>
  */
 @Service
+@Timed(value = "library.service", percentiles = {0.5, 0.95, 0.99})
 @RequiredArgsConstructor
 public class BookService {
 
@@ -21,50 +36,336 @@ public class BookService {
      */
     private final BookRepository bookRepository;
 
+    /**
+     * Сервис сводок оценок: сводка создается и удаляется вместе с книгой.
+     */
+    private final RatingService ratingService;
+
+    /**
+     * Репозиторий комментариев: комментарии удаляются вместе с книгой.
+     */
+    private final CommentRepository commentRepository;
+
+    /**
+     * Кэши сервисного слоя, очищаемые при изменении книги.
+     */
+    private final LibraryCaches libraryCaches;
+
+    /**
+     * Поисковый индекс книг, обновляемый при сохранении и удалении.
+     */
+    private final SearchIndex searchIndex;
+
+    /**
+     * Версии сущностей для условных HTTP-запросов.
+     */
+    private final EntityVersions entityVersions;
+
+    /**
+     * Прямой доступ к базе для проверок, которые не должны занимать контекст персистентности запроса.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Ключи сортировки, для которых поддерживается keyset-пагинация.
+     */
+    private static final String SORT_ID = "id";
+    private static final String SORT_NAME = "name";
+
+    /**
+     * Максимальное количество подсказок при вводе названия книги.
+     */
+    public static final int SUGGEST_LIMIT = 10;
+
     /**
      * Получает список всех книг из базы данных.
      *
-     * <p>Возвращает все книги, включая их авторов (ленивая загрузка).
+     * <p>Возвращает все книги вместе с авторами, загруженными тем же запросом (JOIN FETCH).
      *
      * @return список всех книг (может быть пустым)
      */
     public List<Book> findAll() {
-        return bookRepository.findAll();
+        return bookRepository.findAllWithAuthor();
+    }
+
+    /**
+     * Получает одну страницу книг для списка.
+     *
+     * <p>Загружает только строки запрошенной страницы, поэтому время ответа
+     * и потребление памяти не зависят от размера таблицы.</p>
+     *
+     * @param pageable номер, размер страницы и сортировка
+     * @return срез строк списка книг (может быть пустым)
+     */
+    public Slice<BookRow> findPage(Pageable pageable) {
+        return bookRepository.findRows(pageable);
+    }
+
+    /**
+     * Получает одну страницу книг, отфильтрованных по жанру и (или) автору.
+     *
+     * <p>Каждое сочетание фильтров выполняется своим запросом, чтобы условие
+     * использовало индекс по жанру или по автору.</p>
+     *
+     * @param genre жанр или {@code null}
+     * @param authorId идентификатор автора или {@code null}
+     * @param pageable номер, размер страницы и сортировка
+     * @return срез строк списка книг (может быть пустым)
+     */
+    public Slice<BookRow> findPage(String genre, Long authorId, Pageable pageable) {
+        if (genre != null && authorId != null) {
+            return bookRepository.findRowsByGenreAndAuthorId(genre, authorId, pageable);
+        }
+        if (genre != null) {
+            return bookRepository.findRowsByGenre(genre, pageable);
+        }
+        if (authorId != null) {
+            return bookRepository.findRowsByAuthorId(authorId, pageable);
+        }
+        return findPage(pageable);
+    }
+
+    /**
+     * Возвращает количество книг по жанрам из счетчиков поискового индекса.
+     *
+     * @param authorId если указан - считаются только книги этого автора
+     * @param limit максимальное количество жанров
+     * @return значения фасета жанров
+     */
+    public List<FacetCount> genreFacets(Long authorId, int limit) {
+        return searchIndex.genreFacets(authorId, limit);
+    }
+
+    /**
+     * Возвращает количество книг по авторам из счетчиков поискового индекса.
+     *
+     * @param genre если указан - считаются только книги этого жанра
+     * @param limit максимальное количество авторов
+     * @return значения фасета авторов
+     */
+    public List<FacetCount> authorFacets(String genre, int limit) {
+        return searchIndex.authorFacets(genre, limit);
+    }
+
+    /**
+     * Находит строку книги с именем автора и сводкой оценок для страницы книги.
+     *
+     * @param id идентификатор книги
+     * @return строка книги или {@code null} если не найдена
+     */
+    public BookRow findRow(Long id) {
+        return bookRepository.findRowById(id).orElse(null);
+    }
+
+    /**
+     * Находит строки нескольких книг одним запросом.
+     *
+     * @param ids идентификаторы книг
+     * @return строки найденных книг в порядке идентификаторов
+     */
+    public List<BookRow> findRows(Collection<Long> ids) {
+        return bookRepository.findRowsByIds(ids);
+    }
+
+    /**
+     * Подбирает книги по началу названия для поля ввода с подсказками.
+     *
+     * <p>Поиск выполняется так же, как в {@link AuthorService#suggest(String)}.</p>
+     *
+     * @param query введенный пользователем текст
+     * @return не более {@value #SUGGEST_LIMIT} книг
+     */
+    public List<BookOption> suggest(String query) {
+        return Suggestions.find(query, SUGGEST_LIMIT,
+                prefix -> bookRepository.findOptionsByNamePrefix(prefix, Limit.of(SUGGEST_LIMIT)));
+    }
+
+    /**
+     * Находит название книги и имя ее автора (например, для подписи выбранного значения в форме).
+     *
+     * @param id идентификатор книги
+     * @return проекция книги или {@code null} если не найдена
+     */
+    public BookOption findOption(Long id) {
+        return id == null ? null : bookRepository.findOptionById(id).orElse(null);
+    }
+
+    /**
+     * Проверяет, существует ли книга.
+     *
+     * <p>Запрос выполняется через JDBC, и соединение сразу возвращается в пул.
+     * Контекст персистентности, открытый для представления (open-in-view), удерживал бы
+     * соединение до конца запроса, а асинхронный запрос (лента комментариев) длится долго.</p>
+     *
+     * @param id идентификатор книги
+     * @return {@code true}, если книга найдена
+     */
+    public boolean exists(Long id) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books WHERE id = ?", Integer.class, id);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Получает страницу книг, следующую за позицией курсора (keyset-пагинация).
+     *
+     * <p>Запрашивает на одну строку больше, чтобы определить, есть ли следующая страница.</p>
+     *
+     * @param cursor позиция последней показанной книги
+     * @param size размер страницы
+     * @return строки страницы книг и курсор для следующей
+     */
+    public KeysetSlice<BookRow> scroll(KeysetCursor cursor, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<BookRow> rows = SORT_NAME.equals(cursor.sort())
+                ? bookRepository.findNextByName(cursor.lastValue() == null ? "" : cursor.lastValue(), cursor.lastId(), limit)
+                : bookRepository.findNextById(cursor.lastId(), limit);
+        if (rows.size() <= size) {
+            return new KeysetSlice<>(rows, null);
+        }
+        List<BookRow> content = rows.subList(0, size);
+        return new KeysetSlice<>(content, cursorAfter(cursor.sort(), content.get(size - 1)).encode());
+    }
+
+    /**
+     * Строит курсор на страницу, следующую за страницей, полученной через {@link #findPage(Pageable)}.
+     *
+     * <p>Позволяет перейти с обычной постраничной навигации на keyset-пагинацию,
+     * чтобы глубокие страницы не требовали пропуска строк через {@code OFFSET}.</p>
+     *
+     * @param page текущая страница
+     * @return токен курсора или {@code null}, если страница последняя
+     *         или сортировка не поддерживает keyset-пагинацию
+     */
+    public String nextCursor(Slice<BookRow> page) {
+        String sort = keysetSort(page.getSort());
+        if (sort == null || !page.hasNext() || !page.hasContent()) {
+            return null;
+        }
+        List<BookRow> content = page.getContent();
+        return cursorAfter(sort, content.get(content.size() - 1)).encode();
+    }
+
+    private static KeysetCursor cursorAfter(String sort, BookRow last) {
+        return new KeysetCursor(sort, last.id(), SORT_NAME.equals(sort) ? last.name() : null);
+    }
+
+    private static String keysetSort(Sort sort) {
+        List<Sort.Order> orders = sort.stream()
+                .filter(order -> !(SORT_ID.equals(order.getProperty()) && order.isAscending()))
+                .toList();
+        if (orders.isEmpty()) {
+            return sort.isSorted() ? SORT_ID : null;
+        }
+        if (orders.size() != 1 || !orders.get(0).isAscending()) {
+            return null;
+        }
+        return SORT_NAME.equals(orders.get(0).getProperty()) ? SORT_NAME : null;
     }
 
 
     /**
      * Находит книгу по её идентификатору.
      *
+     * <p>Книга загружается вместе с автором и кэшируется в {@value LibraryCaches#BOOKS};
+     * отсутствующая книга не кэшируется.</p>
+     *
      * @param id идентификатор книги для поиска
      * @return найденная книга или {@code null} если не найдена
      */
+    @Cacheable(cacheNames = LibraryCaches.BOOKS, unless = "#result == null")
     public Book findById(Long id) {
-        return bookRepository.findById(id).orElse(null);
+        return bookRepository.findWithAuthorById(id).orElse(null);
     }
 
     /**
      * Сохраняет (создает или обновляет) книгу в базе данных.
      *
-     * <p>Делегирует операцию репозиторию.</p>
+     * <p>Для новой книги создает пустую сводку оценок. Из кэшей удаляются книга,
+     * ее комментарии (они содержат книгу) и списки книг нового и прежнего автора.
+     * Поисковый индекс обновляется после фиксации транзакции.</p>
      *
      * @param book объект книги для сохранения
      * @return сохраненная книга (с присвоенным ID если это новая запись)
      */
 
+    @Transactional
     public Book save(Book book) {
-        return bookRepository.save(book);
+        boolean created = book.getId() == null;
+        if (!created) {
+            bookRepository.findAuthorIdById(book.getId()).ifPresent(libraryCaches::evictBooksByAuthor);
+            libraryCaches.evictBook(book.getId());
+            libraryCaches.evictCommentsByBook(book.getId());
+        }
+        Book saved = bookRepository.save(book);
+        if (created) {
+            ratingService.initialize(saved.getId());
+        }
+        libraryCaches.evictBooksByAuthor(saved.getAuthor().getId());
+        entityVersions.bump(EntityVersions.Kind.BOOKS);
+        searchIndex.indexBooks(List.of(new BookIndexRow(saved.getId(), saved.getName(), saved.getGenre(),
+                saved.getAuthor().getId())));
+        return saved;
+    }
+
+    /**
+     * Сохраняет несколько новых книг в одной транзакции.
+     *
+     * <p>Книги вставляются пакетами JDBC, пустые сводки оценок создаются одним пакетом.
+     * Из кэша удаляются списки книг затронутых авторов.</p>
+     *
+     * @param books новые книги
+     * @return сохраненные книги с присвоенными идентификаторами
+     */
+    @Transactional
+    public List<Book> saveAll(List<Book> books) {
+        List<Book> saved = bookRepository.saveAllAndFlush(books);
+        ratingService.initializeAll(saved.stream().map(Book::getId).toList());
+        saved.stream().map(book -> book.getAuthor().getId()).distinct().forEach(libraryCaches::evictBooksByAuthor);
+        entityVersions.bump(EntityVersions.Kind.BOOKS);
+        searchIndex.indexBooks(saved.stream()
+                .map(book -> new BookIndexRow(book.getId(), book.getName(), book.getGenre(), book.getAuthor().getId()))
+                .toList());
+        return saved;
     }
 
     /**
      * Удаляет книгу по идентификатору.
      *
-     * <p>Удаляет книгу и все связанные комментарии (если cascade = ALL).
+     * <p>Удаляет книгу, все связанные комментарии и сводку оценок,
+     * а из кэшей - книгу, ее комментарии и список книг ее автора.
      *
      * @param id идентификатор книги для удаления
      */
+    @Transactional
     public void deleteById(Long id) {
-        bookRepository.deleteById(id);
+        deleteAll(List.of(id));
+    }
+
+    /**
+     * Удаляет несколько книг вместе с комментариями и сводками оценок.
+     *
+     * <p>Каждая таблица очищается одним запросом {@code DELETE ... WHERE ... IN}
+     * в порядке зависимостей, без загрузки сущностей в контекст. Из кэшей удаляются
+     * книги, их комментарии и списки книг затронутых авторов.</p>
+     *
+     * @param ids идентификаторы книг
+     * @return количество удаленных книг
+     */
+    @Transactional
+    public int deleteAll(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        bookRepository.findAuthorIdsByIds(ids).forEach(libraryCaches::evictBooksByAuthor);
+        for (Long id : ids) {
+            libraryCaches.evictBook(id);
+            libraryCaches.evictCommentsByBook(id);
+        }
+        commentRepository.deleteByBookIds(ids);
+        ratingService.deleteByBookIds(ids);
+        entityVersions.bump(EntityVersions.Kind.BOOKS, EntityVersions.Kind.COMMENTS);
+        searchIndex.removeBooks(ids);
+        return bookRepository.deleteByIds(ids);
     }
 
 
@@ -72,10 +373,12 @@ public class BookService {
      * Находит все книги указанного автора.
      *
      * <p>Использует кастомный метод репозитория для поиска по ID автора.
+     * Результат кэшируется в {@value LibraryCaches#BOOKS_BY_AUTHOR}.
      *
      * @param authorId идентификатор автора
      * @return список книг указанного автора (может быть пустым)
      */
+    @Cacheable(LibraryCaches.BOOKS_BY_AUTHOR)
     public List<Book> findByAuthorId(Long authorId) {
         return bookRepository.findByAuthorId(authorId);
     }
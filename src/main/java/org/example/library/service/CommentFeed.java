@@ -0,0 +1,219 @@
+package org.example.library.service;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.library.dto.CommentDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Шина новых комментариев внутри процесса: издатель - {@link CommentService},
+ * подписчики - открытые ленты комментариев книги.
+ *
+ * <p>Комментарий публикуется после фиксации транзакции и раскладывается по ограниченным
+ * буферам подписчиков его книги без блокировки издателя. Буферы разбирает небольшой пул
+ * потоков записи, причем каждым подписчиком в любой момент занят не более чем один поток.
+ * Подписчик, буфер которого заполнен (клиент не успевает читать), отключается.</p>
+ *
+ * <p>Раз в {@code library.comments.stream.heartbeat-ms} всем подписчикам ставится пустое
+ * событие, чтобы прокси не закрывали простаивающие соединения, а разорванные соединения
+ * обнаруживались при записи. Простаивающий подписчик не занимает потоков и не выполняет
+ * запросов к базе.</p>
+ *
+ * <p>Метрики: {@code library.comments.stream.subscribers} (открытые ленты)
+ * и {@code library.comments.stream.dropped} (отключенные медленные подписчики).</p>
+ */
+@Slf4j
+@Component
+public class CommentFeed {
+
+    /**
+     * Получатель событий подписчика (например, открытое HTTP-соединение).
+     * Методы вызываются потоками записи и могут блокироваться.
+     */
+    public interface Sink {
+
+        /**
+         * Отправляет новый комментарий.
+         *
+         * @param comment комментарий
+         * @throws IOException если соединение разорвано
+         */
+        void send(CommentDto comment) throws IOException;
+
+        /**
+         * Отправляет пустое событие, поддерживающее соединение.
+         *
+         * @throws IOException если соединение разорвано
+         */
+        void heartbeat() throws IOException;
+
+        /**
+         * Закрывает получатель после отключения подписчика.
+         */
+        void close();
+    }
+
+    /**
+     * Пустое событие в буфере подписчика (сравнивается по ссылке).
+     */
+    private static final CommentDto HEARTBEAT = new CommentDto(null, null, null, null);
+
+    /**
+     * Подписчики по идентификатору книги.
+     */
+    private final ConcurrentHashMap<Long, Set<Subscription>> subscribers = new ConcurrentHashMap<>();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final int bufferSize;
+    private final ExecutorService writers;
+    private final Counter dropped;
+
+    public CommentFeed(MeterRegistry meterRegistry,
+                       @Value("${library.comments.stream.buffer-size:32}") int bufferSize,
+                       @Value("${library.comments.stream.writer-threads:4}") int writerThreads) {
+        this.bufferSize = bufferSize;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("comment-stream-");
+        threadFactory.setDaemon(true);
+        this.writers = Executors.newFixedThreadPool(writerThreads, threadFactory);
+        meterRegistry.gauge("library.comments.stream.subscribers", subscriberCount);
+        this.dropped = meterRegistry.counter("library.comments.stream.dropped");
+    }
+
+    /**
+     * Подписывает получатель на новые комментарии книги.
+     *
+     * @param bookId идентификатор книги
+     * @param sink получатель событий
+     * @return подписка, которую нужно отменить при закрытии соединения
+     */
+    public Subscription subscribe(Long bookId, Sink sink) {
+        Subscription subscription = new Subscription(bookId, sink);
+        subscribers.compute(bookId, (id, set) -> {
+            Set<Subscription> result = set == null ? ConcurrentHashMap.newKeySet() : set;
+            result.add(subscription);
+            return result;
+        });
+        subscriberCount.incrementAndGet();
+        return subscription;
+    }
+
+    /**
+     * Рассылает новые комментарии подписчикам их книг. Не блокируется.
+     *
+     * @param comments новые зафиксированные комментарии
+     */
+    public void publish(Collection<CommentDto> comments) {
+        for (CommentDto comment : comments) {
+            Set<Subscription> set = subscribers.get(comment.bookId());
+            if (set != null) {
+                set.forEach(subscription -> subscription.offer(comment));
+            }
+        }
+    }
+
+    /**
+     * Ставит пустое событие всем подписчикам.
+     */
+    @Scheduled(fixedDelayString = "${library.comments.stream.heartbeat-ms:15000}")
+    void heartbeat() {
+        subscribers.values().forEach(set -> set.forEach(subscription -> subscription.offer(HEARTBEAT)));
+    }
+
+    /**
+     * Закрывает все ленты при остановке приложения.
+     */
+    @PreDestroy
+    void shutdown() {
+        List.copyOf(subscribers.values()).forEach(set -> set.forEach(Subscription::cancel));
+        writers.shutdownNow();
+    }
+
+    /**
+     * Подписка на комментарии одной книги с собственным буфером событий.
+     */
+    public final class Subscription implements Runnable {
+        private final Long bookId;
+        private final Sink sink;
+        private final BlockingQueue<CommentDto> buffer = new ArrayBlockingQueue<>(bufferSize);
+
+        /**
+         * Разбор буфера поставлен в пул потоков записи или уже выполняется.
+         */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscription(Long bookId, Sink sink) {
+            this.bookId = bookId;
+            this.sink = sink;
+        }
+
+        /**
+         * Отменяет подписку. Повторный вызов ничего не делает.
+         */
+        public void cancel() {
+            if (closed.compareAndSet(false, true)) {
+                subscribers.computeIfPresent(bookId, (id, set) -> {
+                    set.remove(this);
+                    return set.isEmpty() ? null : set;
+                });
+                subscriberCount.decrementAndGet();
+                buffer.clear();
+                sink.close();
+            }
+        }
+
+        private void offer(CommentDto event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                dropped.increment();
+                log.debug("Лента комментариев книги {} отключена: клиент не успевает читать", bookId);
+                cancel();
+                return;
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                writers.execute(this);
+            }
+        }
+
+        /**
+         * Отправляет накопленные события. Флаг снимается только при пустом буфере,
+         * а событие, добавленное в момент снятия, подхватывается повторной проверкой.
+         */
+        @Override
+        public void run() {
+            do {
+                CommentDto event;
+                while (!closed.get() && (event = buffer.poll()) != null) {
+                    try {
+                        if (event == HEARTBEAT) {
+                            sink.heartbeat();
+                        } else {
+                            sink.send(event);
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        // Клиент закрыл соединение
+                        cancel();
+                    }
+                }
+                scheduled.set(false);
+            } while (!closed.get() && !buffer.isEmpty() && scheduled.compareAndSet(false, true));
+        }
+    }
+}
@@ -1,9 +1,24 @@
 package org.example.library.service;
+import io.micrometer.core.annotation.Timed;
+import org.example.library.dto.CommentDto;
+import org.example.library.dto.CommentIndexRow;
+import org.example.library.dto.CommentRow;
+import org.example.library.model.BookRating;
 import org.example.library.model.Comment;
 import org.example.library.repository.CommentRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 /**
  * Сервисный слой для бизнес-логики работы с комментариями/отзывами.
  * Управляет операциями с комментариями, включая валидацию,
@@ -12,6 +27,7 @@ import java.util.List;
  * <p>Обрабатывает логику оценки книг и обратную связь от читателей.</p>
  */
 @Service
+@Timed(value = "library.service", percentiles = {0.5, 0.95, 0.99})
 @RequiredArgsConstructor
 public class CommentService {
     /**
@@ -20,16 +36,137 @@ public class CommentService {
      */
     private final CommentRepository commentRepository;
 
+    /**
+     * Сервис сводок оценок, обновляемых при каждом изменении комментариев.
+     */
+    private final RatingService ratingService;
+
+    /**
+     * Кэши сервисного слоя: изменение комментария очищает список комментариев книги.
+     */
+    private final LibraryCaches libraryCaches;
+
+    /**
+     * Поисковый индекс: книги находятся по именам читателей.
+     */
+    private final SearchIndex searchIndex;
+
+    /**
+     * Версии сущностей для условных HTTP-запросов.
+     */
+    private final EntityVersions entityVersions;
+
+    /**
+     * Шина новых комментариев для открытых лент страниц книг.
+     */
+    private final CommentFeed commentFeed;
+
+    /**
+     * Ключи сортировки, для которых поддерживается keyset-пагинация.
+     * Сортировка по оценке идет от высокой к низкой.
+     */
+    private static final String SORT_ID = "id";
+    private static final String SORT_RATING = "rating";
+
+    /**
+     * Максимальная оценка: с нее начинается список при сортировке по оценке.
+     */
+    private static final int RATING_MAX = 5;
+
 
     /**
      * Получает список всех комментариев из базы данных.
      *
-     * <p>Возвращает все комментарии, включая связанные книги.
+     * <p>Возвращает все комментарии вместе со связанными книгами и их авторами,
+     * загруженными тем же запросом (JOIN FETCH).
      *
      * @return список всех комментариев (может быть пустым)
      */
     public List<Comment> findAll() {
-        return commentRepository.findAll();
+        return commentRepository.findAllWithBookAndAuthor();
+    }
+
+    /**
+     * Получает одну страницу комментариев для списка.
+     *
+     * <p>Загружает только строки запрошенной страницы, поэтому время ответа
+     * и потребление памяти не зависят от размера таблицы.</p>
+     *
+     * @param pageable номер, размер страницы и сортировка
+     * @return срез строк списка комментариев (может быть пустым)
+     */
+    public Slice<CommentRow> findPage(Pageable pageable) {
+        return commentRepository.findRows(pageable);
+    }
+
+    /**
+     * Получает страницу комментариев, следующую за позицией курсора (keyset-пагинация).
+     *
+     * @param cursor позиция последнего показанного комментария
+     * @param size размер страницы
+     * @return строки страницы комментариев и курсор для следующей
+     */
+    public KeysetSlice<CommentRow> scroll(KeysetCursor cursor, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<CommentRow> rows = SORT_RATING.equals(cursor.sort())
+                ? scrollByRating(cursor, size + 1)
+                : commentRepository.findNextById(cursor.lastId(), limit);
+        if (rows.size() <= size) {
+            return new KeysetSlice<>(rows, null);
+        }
+        List<CommentRow> content = rows.subList(0, size);
+        return new KeysetSlice<>(content, cursorAfter(cursor.sort(), content.get(size - 1)).encode());
+    }
+
+    /**
+     * Строит курсор на страницу, следующую за страницей, полученной через {@link #findPage(Pageable)}.
+     *
+     * @param page текущая страница
+     * @return токен курсора или {@code null}, если страница последняя
+     *         или сортировка не поддерживает keyset-пагинацию
+     */
+    public String nextCursor(Slice<CommentRow> page) {
+        String sort = keysetSort(page.getSort());
+        if (sort == null || !page.hasNext() || !page.hasContent()) {
+            return null;
+        }
+        List<CommentRow> content = page.getContent();
+        return cursorAfter(sort, content.get(content.size() - 1)).encode();
+    }
+
+    /**
+     * Выбирает строки после курсора при сортировке по оценке двумя поисками по индексу:
+     * оставшиеся строки с оценкой курсора, затем строки с меньшими оценками.
+     */
+    private List<CommentRow> scrollByRating(KeysetCursor cursor, int limit) {
+        if (cursor.lastValue() == null) {
+            return commentRepository.findFromRating(RATING_MAX, Limit.of(limit));
+        }
+        int lastRating = Integer.parseInt(cursor.lastValue());
+        List<CommentRow> rows = new ArrayList<>(
+                commentRepository.findNextWithRating(lastRating, cursor.lastId(), Limit.of(limit)));
+        if (rows.size() < limit && lastRating > 1) {
+            rows.addAll(commentRepository.findFromRating(lastRating - 1, Limit.of(limit - rows.size())));
+        }
+        return rows;
+    }
+
+    private static KeysetCursor cursorAfter(String sort, CommentRow last) {
+        return new KeysetCursor(sort, last.id(), SORT_RATING.equals(sort) ? String.valueOf(last.rating()) : null);
+    }
+
+    private static String keysetSort(Sort sort) {
+        List<Sort.Order> orders = sort.stream()
+                .filter(order -> !(SORT_ID.equals(order.getProperty()) && order.isAscending()))
+                .toList();
+        if (orders.isEmpty()) {
+            return sort.isSorted() ? SORT_ID : null;
+        }
+        if (orders.size() != 1) {
+            return null;
+        }
+        Sort.Order order = orders.get(0);
+        return SORT_RATING.equals(order.getProperty()) && order.isDescending() ? SORT_RATING : null;
     }
 
     /**
@@ -46,31 +183,131 @@ public class CommentService {
     /**
      * Сохраняет (создает или обновляет) комментарий в базе данных.
      *
-     * <p>Делегирует операцию репозиторию.</p>
+     * <p>В той же транзакции обновляет сводки оценок: для нового комментария
+     * оценка добавляется к сводке книги, при изменении оценки или книги старая
+     * оценка убирается из сводки прежней книги и добавляется к новой.
+     * Из кэша удаляются списки комментариев новой и прежней книги.
+     * Новый комментарий после фиксации транзакции рассылается в ленты книги.</p>
      *
      * @param comment объект комментария для сохранения
      * @return сохраненный комментарий (с присвоенным ID если новая запись)
      */
+    @Transactional
     public Comment save(Comment comment) {
-        return commentRepository.save(comment);
+        Comment previous = comment.getId() == null ? null : commentRepository.findById(comment.getId()).orElse(null);
+        Long previousBookId = previous == null ? null : previous.getBook().getId();
+        Integer previousRating = previous == null ? null : previous.getRating();
+
+        Comment saved = commentRepository.save(comment);
+        Long bookId = saved.getBook().getId();
+        libraryCaches.evictCommentsByBook(bookId);
+        if (previousBookId != null && !previousBookId.equals(bookId)) {
+            libraryCaches.evictCommentsByBook(previousBookId);
+        }
+        if (previous == null) {
+            ratingService.added(bookId, saved.getRating());
+            List<CommentDto> published = List.of(CommentDto.of(saved));
+            AfterCommit.run(() -> commentFeed.publish(published));
+        } else if (!bookId.equals(previousBookId) || !saved.getRating().equals(previousRating)) {
+            ratingService.removed(previousBookId, previousRating);
+            ratingService.added(bookId, saved.getRating());
+        }
+        entityVersions.bump(EntityVersions.Kind.COMMENTS);
+        searchIndex.indexComments(List.of(new CommentIndexRow(saved.getId(), bookId, saved.getReader())));
+        return saved;
     }
 
     /**
-     * Удаляет комментарий по идентификатору.
+     * Сохраняет несколько новых комментариев в одной транзакции.
+     *
+     * <p>Оценки суммируются по книгам и учитываются в сводках одним пакетом обновлений,
+     * из кэша удаляются списки комментариев затронутых книг. После фиксации
+     * комментарии рассылаются в ленты их книг.</p>
+     *
+     * @param comments новые комментарии
+     * @return сохраненные комментарии с присвоенными идентификаторами
+     */
+    @Transactional
+    public List<Comment> saveAll(List<Comment> comments) {
+        List<Comment> saved = commentRepository.saveAllAndFlush(comments);
+        Map<Long, BookRating> changes = new HashMap<>();
+        for (Comment comment : saved) {
+            changes.computeIfAbsent(comment.getBook().getId(), BookRating::new).apply(comment.getRating(), 1);
+        }
+        ratingService.applyAll(changes);
+        changes.keySet().forEach(libraryCaches::evictCommentsByBook);
+        entityVersions.bump(EntityVersions.Kind.COMMENTS);
+        searchIndex.indexComments(saved.stream()
+                .map(comment -> new CommentIndexRow(comment.getId(), comment.getBook().getId(), comment.getReader()))
+                .toList());
+        List<CommentDto> published = saved.stream().map(CommentDto::of).toList();
+        AfterCommit.run(() -> commentFeed.publish(published));
+        return saved;
+    }
+
+    /**
+     * Удаляет комментарий по идентификатору, убирает его оценку из сводки книги
+     * и удаляет список комментариев книги из кэша.
+     *
+     * <p>Выполняется как {@link #deleteAll(Collection)} одним запросом, без загрузки сущности.</p>
+     *
      * @param id идентификатор комментария для удаления
      */
+    @Transactional
     public void deleteById(Long id) {
-        commentRepository.deleteById(id);
+        deleteAll(List.of(id));
+    }
+
+    /**
+     * Удаляет несколько комментариев одним запросом.
+     *
+     * <p>Оценки удаляемых комментариев сначала подсчитываются группировкой по книге
+     * и убираются из сводок одним пакетом обновлений, затем комментарии удаляются
+     * запросом {@code DELETE ... WHERE id IN} без загрузки сущностей.
+     * Из кэша удаляются списки комментариев затронутых книг.</p>
+     *
+     * @param ids идентификаторы комментариев
+     * @return количество удаленных комментариев
+     */
+    @Transactional
+    public int deleteAll(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Map<Long, BookRating> changes = new HashMap<>();
+        for (Object[] row : commentRepository.countRatingsByIds(ids)) {
+            Long bookId = (Long) row[0];
+            changes.computeIfAbsent(bookId, BookRating::new).apply((Integer) row[1], -(Long) row[2]);
+        }
+        int deleted = commentRepository.deleteByIds(ids);
+        ratingService.applyAll(changes);
+        changes.keySet().forEach(libraryCaches::evictCommentsByBook);
+        entityVersions.bump(EntityVersions.Kind.COMMENTS);
+        searchIndex.removeComments(ids);
+        return deleted;
+    }
+
+    /**
+     * Получает одну страницу строк комментариев к книге.
+     *
+     * @param bookId идентификатор книги
+     * @param pageable номер, размер страницы и сортировка
+     * @return срез строк комментариев (может быть пустым)
+     */
+    public Slice<CommentRow> findPageByBookId(Long bookId, Pageable pageable) {
+        return commentRepository.findRowsByBookId(bookId, pageable);
     }
 
     /**
      * Находит все комментарии для указанной книги.
      *
-     * <p>Использует кастомный метод репозитория</p>
+     * <p>Использует кастомный метод репозитория. Результат кэшируется
+     * в {@value LibraryCaches#COMMENTS_BY_BOOK}.</p>
      *
      * @param bookId идентификатор книги
      * @return список комментариев для книги (может быть пустым)
      */
+    @Cacheable(LibraryCaches.COMMENTS_BY_BOOK)
     public List<Comment> findByBookId(Long bookId) {
         return commentRepository.findByBookId(bookId);
     }
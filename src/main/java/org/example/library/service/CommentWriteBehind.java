@@ -0,0 +1,234 @@
+package org.example.library.service;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.library.model.Comment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отложенная пакетная запись новых комментариев (write-behind).
+ *
+ * <p>Проверенные комментарии из формы помещаются в ограниченную очередь в памяти,
+ * а фоновый поток записывает их пакетами через {@link CommentService#saveAll}:
+ * пакет отправляется, когда набрано {@code max-batch} комментариев или первый
+ * комментарий пакета ждет дольше {@code linger-ms}. Так всплеск отзывов превращается
+ * в несколько транзакций с пакетными вставками вместо транзакции на каждый запрос.</p>
+ *
+ * <p>Режим включается свойством {@code library.comments.write-behind.enabled}.
+ * Если очередь заполнена, отправка ждет свободного места не дольше {@code offer-timeout-ms}
+ * (0 - сразу отклоняется). При остановке приложения поток дописывает очередь
+ * (после остановки веб-сервера, чтобы новые комментарии уже не поступали).</p>
+ *
+ * <p>Метрики: {@code library.comments.write-behind.queue} (глубина очереди),
+ * {@code .lag} (время от отправки формы до фиксации), {@code .batch} (размер пакета),
+ * {@code .rejected} и {@code .failed} (комментарии, которые не удалось записать).</p>
+ *
+ * SmartLifecycle - Spring запускает и останавливает поток записи вместе с контекстом
+ */
+@Slf4j
+@Component
+public class CommentWriteBehind implements SmartLifecycle {
+
+    /**
+     * Комментарий в очереди и момент его постановки.
+     */
+    private record Pending(Comment comment, long enqueuedNanos) {
+    }
+
+    private final CommentService commentService;
+    private final boolean enabled;
+    private final BlockingQueue<Pending> queue;
+    private final int maxBatch;
+    private final long lingerNanos;
+    private final long offerTimeoutMillis;
+    private final long drainTimeoutMillis;
+    private final Timer lag;
+    private final DistributionSummary batchSize;
+    private final Counter rejected;
+    private final Counter failed;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public CommentWriteBehind(CommentService commentService, MeterRegistry meterRegistry,
+                              @Value("${library.comments.write-behind.enabled:false}") boolean enabled,
+                              @Value("${library.comments.write-behind.queue-capacity:10000}") int queueCapacity,
+                              @Value("${library.comments.write-behind.max-batch:500}") int maxBatch,
+                              @Value("${library.comments.write-behind.linger-ms:50}") long lingerMillis,
+                              @Value("${library.comments.write-behind.offer-timeout-ms:0}") long offerTimeoutMillis,
+                              @Value("${library.comments.write-behind.drain-timeout-ms:30000}") long drainTimeoutMillis) {
+        this.commentService = commentService;
+        this.enabled = enabled;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatch = maxBatch;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.drainTimeoutMillis = drainTimeoutMillis;
+        Gauge.builder("library.comments.write-behind.queue", queue, BlockingQueue::size)
+                .description("Comments waiting to be written")
+                .register(meterRegistry);
+        this.lag = Timer.builder("library.comments.write-behind.lag")
+                .description("Time from form submission to commit")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("library.comments.write-behind.batch")
+                .description("Comments written per transaction")
+                .register(meterRegistry);
+        this.rejected = meterRegistry.counter("library.comments.write-behind.rejected");
+        this.failed = meterRegistry.counter("library.comments.write-behind.failed");
+    }
+
+    /**
+     * Проверяет, включен ли режим отложенной записи.
+     *
+     * @return {@code true}, если комментарии из формы нужно передавать в {@link #offer}
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ставит новый комментарий в очередь на запись.
+     *
+     * <p>Время создания комментария фиксируется в момент отправки формы, а не записи.</p>
+     *
+     * @param comment проверенный новый комментарий
+     * @return {@code false}, если очередь заполнена (или приложение останавливается)
+     *         и комментарий не принят
+     */
+    public boolean offer(Comment comment) {
+        if (!running) {
+            rejected.increment();
+            return false;
+        }
+        comment.setCreatedAt(Instant.now());
+        Pending pending = new Pending(comment, System.nanoTime());
+        try {
+            if (queue.offer(pending, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        return false;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "comment-writer");
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(drainTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Не записано комментариев при остановке: {}", queue.size());
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Останавливается после веб-сервера ({@code WebServerGracefulShutdownLifecycle}),
+     * поэтому к моменту дозаписи очереди новые запросы уже не принимаются.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = first.enqueuedNanos() + lingerNanos;
+                while (batch.size() < maxBatch) {
+                    queue.drainTo(batch, maxBatch - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatch || remaining <= 0 || !running) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                log.error("Ошибка записи пакета комментариев", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Записывает пакет одной транзакцией. Если пакет отклонен базой (например, книга
+     * уже удалена), комментарии записываются по одному, чтобы потерять только ошибочные.
+     */
+    private void write(List<Pending> batch) {
+        List<Comment> comments = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            comments.add(pending.comment());
+        }
+        try {
+            commentService.saveAll(comments);
+        } catch (DataAccessException e) {
+            log.warn("Пакет из {} комментариев отклонен, запись по одному: {}", batch.size(), e.getMessage());
+            for (Pending pending : batch) {
+                Comment comment = pending.comment();
+                comment.setId(null);
+                try {
+                    commentService.save(comment);
+                } catch (DataAccessException single) {
+                    failed.increment();
+                    log.warn("Комментарий к книге {} не записан: {}", comment.getBook().getId(), single.getMessage());
+                }
+            }
+        }
+        batchSize.record(batch.size());
+        log.debug("Записан пакет комментариев: {}", batch.size());
+        long now = System.nanoTime();
+        for (Pending pending : batch) {
+            lag.record(now - pending.enqueuedNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.library.service;
+import org.springframework.stereotype.Component;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Счетчики версий по типам сущностей для условных HTTP-запросов.
+ *
+ * <p>Сервисы увеличивают версию типа после фиксации каждого изменения. Из версий
+ * типов, от которых зависит страница, строятся ETag и Last-Modified: если клиент
+ * прислал тот же ETag, ответ 304 отдается без обращения к базе данных.</p>
+ *
+ * <p>ETag включает время запуска приложения, чтобы после перезапуска (когда счетчики
+ * начинаются заново) сохраненные клиентами ETag не совпали случайно.</p>
+ *
+ * Component - класс регистрируется как бин и внедряется в сервисы и контроллеры
+ */
+@Component
+public class EntityVersions {
+
+    /**
+     * Тип сущности с отдельным счетчиком версий.
+     */
+    public enum Kind {
+        AUTHORS("a"),
+        BOOKS("b"),
+        COMMENTS("c");
+
+        private final String tag;
+
+        Kind(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * Значения заголовков ETag и Last-Modified для набора типов.
+     *
+     * @param etag значение ETag (без кавычек)
+     * @param lastModified время последнего изменения в миллисекундах
+     */
+    public record Stamp(String etag, long lastModified) {
+    }
+
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Kind, AtomicLong> versions = new EnumMap<>(Kind.class);
+    private final Map<Kind, AtomicLong> modifiedAt = new EnumMap<>(Kind.class);
+
+    public EntityVersions() {
+        long now = Instant.now().toEpochMilli();
+        for (Kind kind : Kind.values()) {
+            versions.put(kind, new AtomicLong());
+            modifiedAt.put(kind, new AtomicLong(now));
+        }
+    }
+
+    /**
+     * Увеличивает версии типов после фиксации текущей транзакции.
+     *
+     * @param kinds измененные типы сущностей
+     */
+    public void bump(Kind... kinds) {
+        AfterCommit.run(() -> {
+            long now = Instant.now().toEpochMilli();
+            for (Kind kind : kinds) {
+                versions.get(kind).incrementAndGet();
+                modifiedAt.get(kind).accumulateAndGet(now, Math::max);
+            }
+        });
+    }
+
+    /**
+     * Строит ETag и Last-Modified для страницы, зависящей от указанных типов.
+     *
+     * @param kinds типы сущностей, данные которых выводятся на странице
+     * @return значения заголовков
+     */
+    public Stamp stamp(Kind... kinds) {
+        StringBuilder etag = new StringBuilder(bootId);
+        long lastModified = 0;
+        for (Kind kind : kinds) {
+            etag.append('-').append(kind.tag).append(versions.get(kind).get());
+            lastModified = Math.max(lastModified, modifiedAt.get(kind).get());
+        }
+        return new Stamp(etag.toString(), lastModified);
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.library.service;
+import io.micrometer.core.annotation.Timed;
+import org.example.library.dto.BookExport;
+import org.example.library.dto.BookRow;
+import org.example.library.repository.BookRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Потоковая выгрузка каталога книг в CSV и JSON Lines.
+ *
+ * <p>Строки читаются из базы курсором JDBC в виде проекций (без управляемых сущностей
+ * и ленивых прокси) и сразу записываются в выходной поток, поэтому потребление памяти
+ * не зависит от размера каталога.</p>
+ */
+@Slf4j
+@Service
+@Timed(value = "library.service", percentiles = {0.5, 0.95, 0.99})
+@RequiredArgsConstructor
+public class ExportService {
+    private static final String CSV_HEADER = "id,name,genre,author,review_count,average_rating";
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final BookRepository bookRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Записывает все книги в формате CSV (первая строка - заголовок).
+     *
+     * @param output поток для записи (не закрывается)
+     * @return количество выгруженных книг
+     * @throws IOException при ошибке записи
+     */
+    @Transactional(readOnly = true)
+    public long writeBooksCsv(OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long count = 0;
+        try (Stream<BookRow> rows = bookRepository.streamRows()) {
+            for (Iterator<BookRow> it = rows.iterator(); it.hasNext(); count++) {
+                BookExport book = BookExport.of(it.next());
+                writer.write(String.valueOf(book.id()));
+                writer.write(',');
+                writer.write(csv(book.name()));
+                writer.write(',');
+                writer.write(csv(book.genre()));
+                writer.write(',');
+                writer.write(csv(book.author()));
+                writer.write(',');
+                writer.write(String.valueOf(book.reviewCount()));
+                writer.write(',');
+                writer.write(String.format(Locale.ROOT, "%.2f", book.averageRating()));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+        log.debug("Выгружено книг в CSV: {}", count);
+        return count;
+    }
+
+    /**
+     * Записывает все книги в формате JSON Lines (один объект на строку).
+     *
+     * @param output поток для записи (не закрывается)
+     * @return количество выгруженных книг
+     * @throws IOException при ошибке записи
+     */
+    @Transactional(readOnly = true)
+    public long writeBooksJsonl(OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+        long count = 0;
+        try (Stream<BookRow> rows = bookRepository.streamRows()) {
+            for (Iterator<BookRow> it = rows.iterator(); it.hasNext(); count++) {
+                writer.write(objectMapper.writeValueAsString(BookExport.of(it.next())));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+        log.debug("Выгружено книг в JSON Lines: {}", count);
+        return count;
+    }
+
+    /**
+     * Экранирует значение для CSV: значения с запятой, кавычкой или переводом строки
+     * заключаются в кавычки, кавычки внутри удваиваются.
+     */
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.library.service;
+import java.util.Locale;
+
+/**
+ * Формат файла импорта.
+ */
+public enum ImportFormat {
+    /**
+     * CSV в UTF-8: первая строка - заголовок с именами полей, разделитель - запятая,
+     * значения с запятыми или кавычками заключаются в двойные кавычки.
+     */
+    CSV,
+
+    /**
+     * JSON Lines: один JSON-объект с полями записи на строку.
+     */
+    JSONL;
+
+    /**
+     * Определяет формат по расширению имени файла.
+     *
+     * @param filename имя загруженного файла
+     * @return формат или {@code null}, если расширение не распознано
+     */
+    public static ImportFormat fromFilename(String filename) {
+        String name = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return JSONL;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.library.service;
+
+/**
+ * Тип импортируемых записей и ожидаемые поля каждой записи.
+ *
+ * <p>Книга ссылается на автора по имени, комментарий - на книгу по названию:
+ * имена переводятся в идентификаторы при импорте.</p>
+ */
+public enum ImportKind {
+    /**
+     * Авторы: поле {@code name}.
+     */
+    AUTHORS,
+
+    /**
+     * Книги: поля {@code name}, {@code genre} (необязательное) и {@code author} - имя автора.
+     */
+    BOOKS,
+
+    /**
+     * Комментарии: поля {@code reader}, {@code rating} и {@code book} - название книги.
+     */
+    COMMENTS
+}
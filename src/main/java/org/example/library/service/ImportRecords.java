@@ -0,0 +1,165 @@
+package org.example.library.service;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Построчное чтение записей файла импорта.
+ *
+ * <p>Файл не загружается в память целиком: в каждый момент разбирается одна строка.
+ * Поэтому значение CSV не может содержать перевод строки.</p>
+ */
+final class ImportRecords implements Closeable {
+    private static final char BOM = '\uFEFF';
+
+    private final BufferedReader reader;
+    private final ImportFormat format;
+    private final ObjectMapper objectMapper;
+    private List<String> header = List.of();
+    private long line;
+
+    ImportRecords(ImportFormat format, InputStream input, ObjectMapper objectMapper) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16);
+        this.format = format;
+        this.objectMapper = objectMapper;
+        if (format == ImportFormat.CSV) {
+            String first = readLine();
+            if (first != null) {
+                header = parseCsv(first).stream()
+                        .map(name -> name.trim().toLowerCase(Locale.ROOT))
+                        .toList();
+            }
+        }
+    }
+
+    /**
+     * Читает следующую непустую строку файла.
+     *
+     * @return запись (с описанием ошибки, если строку не удалось разобрать)
+     *         или {@code null}, если файл закончился
+     * @throws IOException при ошибке чтения
+     */
+    ImportRecord next() throws IOException {
+        String text;
+        do {
+            text = readLine();
+            if (text == null) {
+                return null;
+            }
+        } while (text.isBlank());
+        try {
+            Map<String, String> fields = format == ImportFormat.CSV ? csvFields(text) : jsonFields(text);
+            return new ImportRecord(line, fields, null);
+        } catch (JsonProcessingException e) {
+            return new ImportRecord(line, Map.of(), "Некорректный JSON: " + e.getOriginalMessage());
+        } catch (IllegalArgumentException e) {
+            return new ImportRecord(line, Map.of(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String readLine() throws IOException {
+        String text = reader.readLine();
+        if (text != null && ++line == 1 && !text.isEmpty() && text.charAt(0) == BOM) {
+            text = text.substring(1);
+        }
+        return text;
+    }
+
+    private Map<String, String> csvFields(String text) {
+        List<String> values = parseCsv(text);
+        if (values.size() != header.size()) {
+            throw new IllegalArgumentException("Ожидается полей: " + header.size() + ", получено: " + values.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            fields.put(header.get(i), values.get(i));
+        }
+        return fields;
+    }
+
+    private Map<String, String> jsonFields(String text) throws JsonProcessingException {
+        JsonNode node = objectMapper.readTree(text);
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("Строка должна содержать JSON-объект");
+        }
+        Map<String, String> fields = new HashMap<>();
+        node.fields().forEachRemaining(field -> fields.put(field.getKey().toLowerCase(Locale.ROOT),
+                field.getValue().isNull() ? null : field.getValue().asText()));
+        return fields;
+    }
+
+    /**
+     * Разбирает одну строку CSV с учетом значений в двойных кавычках.
+     *
+     * @param text строка файла
+     * @return значения полей
+     * @throws IllegalArgumentException если кавычка не закрыта
+     */
+    static List<String> parseCsv(String text) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Незакрытая кавычка в строке CSV");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    /**
+     * Запись файла импорта.
+     *
+     * @param line номер строки в файле (с 1)
+     * @param fields значения полей по имени поля в нижнем регистре
+     * @param error описание ошибки разбора или {@code null}
+     */
+    record ImportRecord(long line, Map<String, String> fields, String error) {
+
+        /**
+         * Возвращает значение поля без пробелов по краям.
+         *
+         * @param name имя поля
+         * @return значение или {@code null}, если поле отсутствует или пустое
+         */
+        String field(String name) {
+            String value = fields.get(name);
+            return value == null || value.isBlank() ? null : value.trim();
+        }
+    }
+}
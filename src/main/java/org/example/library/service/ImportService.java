@@ -0,0 +1,377 @@
+package org.example.library.service;
+import io.micrometer.core.annotation.Timed;
+import org.example.library.dto.AuthorOption;
+import org.example.library.dto.BookIndexRow;
+import org.example.library.dto.BookOption;
+import org.example.library.dto.CommentIndexRow;
+import org.example.library.dto.ImportRejection;
+import org.example.library.dto.ImportReport;
+import org.example.library.model.Author;
+import org.example.library.model.Book;
+import org.example.library.model.BookRating;
+import org.example.library.model.Comment;
+import org.example.library.repository.AuthorRepository;
+import org.example.library.repository.BookRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Потоковый импорт авторов, книг и комментариев из CSV и JSON Lines.
+ *
+ * <p>Файл читается построчно и не загружается в память целиком. Каждая запись
+ * проверяется ограничениями bean validation сущности, имена автора и книги
+ * переводятся в идентификаторы по справочнику в памяти, загруженному один раз
+ * в начале импорта.</p>
+ *
+ * <p>Записи сохраняются пакетами по {@code library.import.chunk-size} в отдельной
+ * транзакции на пакет: вставки уходят в базу JDBC-пакетами, после каждого пакета
+ * контекст персистентности сбрасывается и очищается, поэтому потребление памяти
+ * не растет с размером файла. Оценки пакета суммируются по книгам и учитываются
+ * в счетчиках после фиксации пакета.</p>
+ *
+ * <p>Если база отклонила пакет (например, книга, на которую ссылается комментарий,
+ * удалена после загрузки справочника), записи пакета сохраняются по одной,
+ * и отклоняются только те, которые не удалось сохранить.</p>
+ */
+@Slf4j
+@Service
+@Timed(value = "library.service", percentiles = {0.5, 0.95, 0.99})
+@RequiredArgsConstructor
+public class ImportService {
+    /**
+     * Сколько отклоненных записей с причинами включается в отчет.
+     */
+    public static final int MAX_REJECTIONS = 100;
+
+    /**
+     * Отметка в справочнике книг: несколько книг с одинаковым названием.
+     */
+    private static final long AMBIGUOUS = -1L;
+
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final AuthorRepository authorRepository;
+    private final BookRepository bookRepository;
+    private final RatingService ratingService;
+    private final LibraryCaches libraryCaches;
+    private final SearchIndex searchIndex;
+    private final EntityVersions entityVersions;
+
+    /**
+     * Количество записей в одной транзакции.
+     */
+    @Value("${library.import.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * Импортирует записи из потока.
+     *
+     * <p>Некорректные записи не прерывают импорт: они пропускаются и попадают в отчет.
+     * Если пакет не удалось сохранить, его записи сохраняются по одной, и в отчет попадают
+     * только записи, отклоненные базой.</p>
+     *
+     * @param kind тип записей
+     * @param format формат файла
+     * @param input содержимое файла
+     * @return отчет о количестве сохраненных и отклоненных записей и скорости импорта
+     * @throws IOException при ошибке чтения файла
+     */
+    public ImportReport importRecords(ImportKind kind, ImportFormat format, InputStream input) throws IOException {
+        long started = System.nanoTime();
+        Progress progress = new Progress();
+        Map<String, Long> lookup = loadLookup(kind);
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        try (ImportRecords records = new ImportRecords(format, input, objectMapper)) {
+            ImportRecords.ImportRecord record;
+            while ((record = records.next()) != null) {
+                progress.processed++;
+                try {
+                    chunk.add(new Row(record.line(), toEntity(kind, record, lookup)));
+                } catch (RejectedRecordException e) {
+                    progress.reject(record.line(), e.getMessage());
+                }
+                if (chunk.size() >= chunkSize) {
+                    write(chunk, progress, lookup);
+                    chunk.clear();
+                }
+            }
+        }
+        write(chunk, progress, lookup);
+
+        long elapsedNanos = System.nanoTime() - started;
+        double seconds = Math.max(elapsedNanos, 1) / 1e9;
+        ImportReport report = new ImportReport(kind.name(), progress.processed, progress.imported, progress.rejected,
+                List.copyOf(progress.rejections), elapsedNanos / 1_000_000, progress.processed / seconds);
+        log.info("Импорт {}: прочитано {}, сохранено {}, отклонено {}, {} записей/с",
+                kind, report.processed(), report.imported(), report.rejected(), Math.round(report.rowsPerSecond()));
+        return report;
+    }
+
+    /**
+     * Загружает справочник имен, нужный для типа записей: имена авторов (для проверки
+     * уникальности или поиска автора книги) либо названия книг (для комментариев).
+     */
+    private Map<String, Long> loadLookup(ImportKind kind) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> {
+            Map<String, Long> lookup = new HashMap<>();
+            if (kind == ImportKind.COMMENTS) {
+                try (Stream<BookOption> books = bookRepository.streamOptions()) {
+                    books.forEach(book -> lookup.merge(book.name(), book.id(), (first, second) -> AMBIGUOUS));
+                }
+            } else {
+                try (Stream<AuthorOption> authors = authorRepository.streamOptions()) {
+                    authors.forEach(author -> lookup.put(author.name(), author.id()));
+                }
+            }
+            entityManager.clear();
+            return lookup;
+        });
+    }
+
+    private Object toEntity(ImportKind kind, ImportRecords.ImportRecord record, Map<String, Long> lookup) {
+        if (record.error() != null) {
+            throw new RejectedRecordException(record.error());
+        }
+        return switch (kind) {
+            case AUTHORS -> toAuthor(record, lookup);
+            case BOOKS -> toBook(record, lookup);
+            case COMMENTS -> toComment(record, lookup);
+        };
+    }
+
+    private Author toAuthor(ImportRecords.ImportRecord record, Map<String, Long> lookup) {
+        Author author = new Author();
+        author.setName(record.field("name"));
+        validate(author);
+        // Имя занимается сразу, чтобы отклонить повторы внутри файла; при ошибке сохранения оно освобождается
+        if (lookup.putIfAbsent(author.getName(), 0L) != null) {
+            throw new RejectedRecordException("Автор с именем '" + author.getName() + "' уже существует");
+        }
+        return author;
+    }
+
+    private Book toBook(ImportRecords.ImportRecord record, Map<String, Long> lookup) {
+        Book book = new Book();
+        book.setName(record.field("name"));
+        book.setGenre(record.field("genre"));
+        String authorName = record.field("author");
+        Long authorId = authorName == null ? null : lookup.get(authorName);
+        if (authorName != null && authorId == null) {
+            throw new RejectedRecordException("Автор '" + authorName + "' не найден");
+        }
+        if (authorId != null) {
+            Author author = new Author();
+            author.setId(authorId);
+            book.setAuthor(author);
+        }
+        validate(book);
+        return book;
+    }
+
+    private Comment toComment(ImportRecords.ImportRecord record, Map<String, Long> lookup) {
+        Comment comment = new Comment();
+        comment.setReader(record.field("reader"));
+        String rating = record.field("rating");
+        try {
+            comment.setRating(rating == null ? null : Integer.valueOf(rating));
+        } catch (NumberFormatException e) {
+            throw new RejectedRecordException("Оценка должна быть числом: " + rating);
+        }
+        String bookName = record.field("book");
+        Long bookId = bookName == null ? null : lookup.get(bookName);
+        if (bookName != null && bookId == null) {
+            throw new RejectedRecordException("Книга '" + bookName + "' не найдена");
+        }
+        if (bookId != null && bookId == AMBIGUOUS) {
+            throw new RejectedRecordException("Найдено несколько книг с названием '" + bookName + "'");
+        }
+        if (bookId != null) {
+            Book book = new Book();
+            book.setId(bookId);
+            comment.setBook(book);
+        }
+        validate(comment);
+        return comment;
+    }
+
+    private void validate(Object entity) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(entity);
+        if (!violations.isEmpty()) {
+            throw new RejectedRecordException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    /**
+     * Сохраняет пакет записей. Если пакет отклонен базой, записи сохраняются по одной,
+     * чтобы отклонить только ошибочные; имена отклоненных авторов освобождаются в справочнике.
+     */
+    private void write(List<Row> chunk, Progress progress, Map<String, Long> lookup) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            persistAll(chunk);
+            progress.imported += chunk.size();
+            return;
+        } catch (RuntimeException e) {
+            entityManager.clear();
+            if (chunk.size() == 1) {
+                reject(chunk.get(0), e, progress, lookup);
+                return;
+            }
+            log.warn("Пакет импорта (строки {}-{}) отклонен, запись по одной: {}",
+                    chunk.get(0).line(), chunk.get(chunk.size() - 1).line(), e.getMessage());
+        }
+        for (Row row : chunk) {
+            try {
+                persistAll(List.of(row.reset()));
+                progress.imported++;
+            } catch (RuntimeException e) {
+                entityManager.clear();
+                reject(row, e, progress, lookup);
+            }
+        }
+    }
+
+    private void reject(Row row, RuntimeException e, Progress progress, Map<String, Long> lookup) {
+        log.warn("Строка импорта {} не сохранена: {}", row.line(), e.getMessage());
+        if (row.entity() instanceof Author author) {
+            lookup.remove(author.getName());
+        }
+        progress.reject(row.line(), "Ошибка сохранения: " + e.getMessage());
+    }
+
+    /**
+     * Сохраняет записи в одной транзакции и очищает контекст персистентности.
+     */
+    private void persistAll(List<Row> rows) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // Импортированные строки не кладутся в кэш второго уровня и не вытесняют из него часто читаемые
+            Session session = entityManager.unwrap(Session.class);
+            CacheMode cacheMode = session.getCacheMode();
+            session.setCacheMode(CacheMode.IGNORE);
+            try {
+                Map<Long, BookRating> ratings = new HashMap<>();
+                Set<Long> authorIds = new HashSet<>();
+                List<AuthorOption> indexedAuthors = new ArrayList<>();
+                List<BookIndexRow> indexedBooks = new ArrayList<>();
+                List<CommentIndexRow> indexedComments = new ArrayList<>();
+                for (Row row : rows) {
+                    // Ссылки на автора и книгу заменяются прокси: они не загружаются и не проверяются SELECT
+                    if (row.entity() instanceof Book book) {
+                        book.setAuthor(entityManager.getReference(Author.class, book.getAuthor().getId()));
+                    } else if (row.entity() instanceof Comment comment) {
+                        comment.setBook(entityManager.getReference(Book.class, comment.getBook().getId()));
+                    }
+                    entityManager.persist(row.entity());
+                    if (row.entity() instanceof Author author) {
+                        indexedAuthors.add(new AuthorOption(author.getId(), author.getName()));
+                    } else if (row.entity() instanceof Book book) {
+                        // Пустая сводка оценок создается вместе с книгой, как в BookService.save
+                        entityManager.persist(new BookRating(book.getId()));
+                        authorIds.add(book.getAuthor().getId());
+                        indexedBooks.add(new BookIndexRow(book.getId(), book.getName(), book.getGenre(),
+                                book.getAuthor().getId()));
+                    } else if (row.entity() instanceof Comment comment) {
+                        ratings.computeIfAbsent(comment.getBook().getId(), BookRating::new).apply(comment.getRating(), 1);
+                        indexedComments.add(new CommentIndexRow(comment.getId(), comment.getBook().getId(),
+                                comment.getReader()));
+                    }
+                }
+                entityManager.flush();
+                ratingService.applyAll(ratings);
+                authorIds.forEach(libraryCaches::evictBooksByAuthor);
+                ratings.keySet().forEach(libraryCaches::evictCommentsByBook);
+                // Индекс и версии сущностей обновляются после фиксации пакета
+                searchIndex.indexAuthors(indexedAuthors);
+                searchIndex.indexBooks(indexedBooks);
+                searchIndex.indexComments(indexedComments);
+                if (!indexedAuthors.isEmpty()) {
+                    entityVersions.bump(EntityVersions.Kind.AUTHORS);
+                }
+                if (!indexedBooks.isEmpty()) {
+                    entityVersions.bump(EntityVersions.Kind.BOOKS);
+                }
+                if (!indexedComments.isEmpty()) {
+                    entityVersions.bump(EntityVersions.Kind.COMMENTS);
+                }
+                entityManager.clear();
+            } finally {
+                session.setCacheMode(cacheMode);
+            }
+        });
+    }
+
+    /**
+     * Запись, прошедшая проверку и ожидающая сохранения.
+     */
+    private record Row(long line, Object entity) {
+
+        /**
+         * Сбрасывает идентификатор, присвоенный в откаченной транзакции, для повторного сохранения.
+         */
+        Row reset() {
+            if (entity instanceof Author author) {
+                author.setId(null);
+            } else if (entity instanceof Book book) {
+                book.setId(null);
+            } else if (entity instanceof Comment comment) {
+                comment.setId(null);
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Счетчики текущего импорта.
+     */
+    private static final class Progress {
+        private long processed;
+        private long imported;
+        private long rejected;
+        private final List<ImportRejection> rejections = new ArrayList<>();
+
+        void reject(long line, String reason) {
+            rejected++;
+            if (rejections.size() < MAX_REJECTIONS) {
+                rejections.add(new ImportRejection(line, reason));
+            }
+        }
+    }
+
+    /**
+     * Запись не прошла проверку и пропускается.
+     */
+    private static final class RejectedRecordException extends RuntimeException {
+        RejectedRecordException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.library.service;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Позиция в списке при постраничном выводе по ключу (keyset / seek pagination).
+ *
+ * <p>Вместо номера страницы хранит ключ сортировки последней показанной строки.
+ * Следующая страница запрашивается условием, например
+ * {@code WHERE value >= :value AND (value > :value OR id > :id)}: первая часть задает
+ * диапазон просмотра индекса {@code (value, id)}, поэтому страница 10 000 стоит столько же,
+ * сколько первая.</p>
+ *
+ * <p>Клиенту курсор передается как непрозрачная строка (параметр {@code after=}),
+ * полученная методом {@link #encode()}.</p>
+ *
+ * @param sort ключ сортировки (например {@code id} или {@code name})
+ * @param lastId идентификатор последней показанной строки
+ * @param lastValue значение поля сортировки последней строки ({@code null} для сортировки по id)
+ */
+public record KeysetCursor(String sort, long lastId, String lastValue) {
+
+    private static final String SEPARATOR = "\n";
+
+    /**
+     * Ключи сортировки с целочисленным значением: токен с другим значением отклоняется
+     * при разборе, а не при выполнении запроса.
+     */
+    private static final Set<String> NUMERIC_SORTS = Set.of("rating");
+
+    /**
+     * Кодирует курсор в строку, безопасную для использования в URL.
+     *
+     * @return непрозрачный токен курсора
+     */
+    public String encode() {
+        String raw = sort + SEPARATOR + lastId + SEPARATOR + (lastValue == null ? "" : lastValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Восстанавливает курсор из токена, полученного от клиента.
+     *
+     * @param token токен из параметра {@code after}
+     * @return курсор
+     * @throws IllegalArgumentException если токен поврежден или значение не соответствует ключу сортировки
+     */
+    public static KeysetCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = raw.split(SEPARATOR, 3);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Некорректный курсор: " + token);
+        }
+        String lastValue = parts[2].isEmpty() ? null : parts[2];
+        if (lastValue != null && NUMERIC_SORTS.contains(parts[0])) {
+            try {
+                Integer.parseInt(lastValue);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Некорректный курсор: " + token, e);
+            }
+        }
+        return new KeysetCursor(parts[0], Long.parseLong(parts[1]), lastValue);
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.library.service;
+import java.util.List;
+
+/**
+ * Страница списка, полученная по курсору {@link KeysetCursor}.
+ *
+ * @param content строки страницы
+ * @param nextCursor токен для запроса следующей страницы или {@code null}, если страница последняя
+ * @param <T> тип строк
+ */
+public record KeysetSlice<T>(List<T> content, String nextCursor) {
+
+    /**
+     * Проверяет, есть ли строки после этой страницы.
+     *
+     * @return {@code true} если можно запросить следующую страницу
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.library.service;
+import io.micrometer.core.annotation.Timed;
+import org.example.library.dto.RankedAuthor;
+import org.example.library.dto.RankedBook;
+import org.example.library.repository.AuthorRepository;
+import org.example.library.repository.BookRepository;
+import org.example.library.repository.CommentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+/**
+ * Сервис рейтингов: лучшие книги по средней оценке, самые обсуждаемые книги за неделю
+ * и самые плодовитые авторы.
+ *
+ * <p>Рейтинги вычисляются агрегирующими запросами по расписанию и хранятся в памяти
+ * как неизменяемый снимок ограниченного размера. Запрос страницы рейтингов читает
+ * готовый снимок и не обращается к базе данных.</p>
+ *
+ * Scheduled - метод вызывается планировщиком Spring с заданным интервалом
+ */
+@Slf4j
+@Service
+@Timed(value = "library.service", percentiles = {0.5, 0.95, 0.99})
+@RequiredArgsConstructor
+public class LeaderboardService {
+    private final BookRepository bookRepository;
+    private final CommentRepository commentRepository;
+    private final AuthorRepository authorRepository;
+
+    /**
+     * Количество строк в каждом рейтинге.
+     */
+    @Value("${library.leaderboards.size:20}")
+    private int size;
+
+    /**
+     * Минимальное количество оценок, чтобы книга попала в рейтинг по средней оценке.
+     */
+    @Value("${library.leaderboards.min-reviews:5}")
+    private long minReviews;
+
+    /**
+     * Последний вычисленный снимок рейтингов. Заменяется целиком, поэтому
+     * читатели всегда видят согласованный набор рейтингов без блокировок.
+     */
+    private volatile Leaderboards current = new Leaderboards(List.of(), List.of(), List.of(), null);
+
+    /**
+     * Возвращает последний вычисленный снимок рейтингов.
+     *
+     * @return снимок рейтингов (до первого пересчета - пустой)
+     */
+    public Leaderboards current() {
+        return current;
+    }
+
+    /**
+     * Пересчитывает рейтинги. Первый раз вызывается сразу после запуска приложения,
+     * затем через интервал {@code library.leaderboards.refresh-ms} после окончания предыдущего.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${library.leaderboards.refresh-ms:60000}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        Limit limit = Limit.of(size);
+        Instant weekAgo = Instant.now().minus(Duration.ofDays(7));
+        current = new Leaderboards(
+                bookRepository.findTopRated(minReviews, limit),
+                commentRepository.findMostCommentedSince(weekAgo, limit),
+                authorRepository.findMostProlific(limit),
+                Instant.now());
+        log.debug("Рейтинги пересчитаны");
+    }
+
+    /**
+     * Снимок рейтингов на момент пересчета.
+     *
+     * @param topRated книги с наибольшей средней оценкой
+     * @param mostCommentedThisWeek книги с наибольшим количеством комментариев за 7 дней
+     * @param mostProlificAuthors авторы с наибольшим количеством книг
+     * @param refreshedAt время пересчета ({@code null}, если пересчета еще не было)
+     */
+    public record Leaderboards(List<RankedBook> topRated,
+                               List<RankedBook> mostCommentedThisWeek,
+                               List<RankedAuthor> mostProlificAuthors,
+                               Instant refreshedAt) {
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.library.service;
+import org.example.library.dto.CacheStatistics;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Component;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Кэши сервисного слоя и их явная очистка при изменениях.
+ *
+ * <p>Сервисы читают данные через {@code @Cacheable} с именами кэшей из этого класса.
+ * Записи удаляются точно по ключу, в том числе в кэшах связанных сущностей:
+ * комментарий меняет список комментариев своей книги, автор - список своих книг.</p>
+ *
+ * <p>Внутри транзакции запись удаляется после фиксации, чтобы параллельное чтение
+ * не положило в кэш данные, которые еще могут быть откачены.</p>
+ *
+ * Component - класс регистрируется как бин и внедряется в сервисы
+ */
+@Component
+@RequiredArgsConstructor
+public class LibraryCaches {
+    /**
+     * Автор по идентификатору.
+     */
+    public static final String AUTHORS = "authors";
+
+    /**
+     * Книга (вместе с автором) по идентификатору.
+     */
+    public static final String BOOKS = "books";
+
+    /**
+     * Книги автора по идентификатору автора.
+     */
+    public static final String BOOKS_BY_AUTHOR = "booksByAuthor";
+
+    /**
+     * Комментарии книги по идентификатору книги.
+     */
+    public static final String COMMENTS_BY_BOOK = "commentsByBook";
+
+    private final CacheManager cacheManager;
+
+    /**
+     * Удаляет автора из кэша.
+     *
+     * @param authorId идентификатор автора
+     */
+    public void evictAuthor(Long authorId) {
+        evict(AUTHORS, authorId);
+    }
+
+    /**
+     * Удаляет книгу из кэша.
+     *
+     * @param bookId идентификатор книги
+     */
+    public void evictBook(Long bookId) {
+        evict(BOOKS, bookId);
+    }
+
+    /**
+     * Удаляет из кэша список книг автора.
+     *
+     * @param authorId идентификатор автора
+     */
+    public void evictBooksByAuthor(Long authorId) {
+        evict(BOOKS_BY_AUTHOR, authorId);
+    }
+
+    /**
+     * Удаляет из кэша список комментариев книги.
+     *
+     * @param bookId идентификатор книги
+     */
+    public void evictCommentsByBook(Long bookId) {
+        evict(COMMENTS_BY_BOOK, bookId);
+    }
+
+    /**
+     * Удаляет записи, содержащие данные автора: самого автора, список его книг,
+     * каждую его книгу и комментарии к ней (книги и комментарии хранят ссылку на автора).
+     *
+     * @param authorId идентификатор автора
+     * @param bookIds идентификаторы книг автора
+     */
+    public void evictAuthorWithBooks(Long authorId, Collection<Long> bookIds) {
+        evictAuthor(authorId);
+        evictBooksByAuthor(authorId);
+        for (Long bookId : bookIds) {
+            evictBook(bookId);
+            evictCommentsByBook(bookId);
+        }
+    }
+
+    /**
+     * Очищает кэши книг и комментариев целиком.
+     *
+     * <p>Используется при массовом удалении авторов: перечислять ключи всех их книг
+     * дороже, чем заново заполнить кэши после фиксации.</p>
+     */
+    public void clearBooksAndComments() {
+        clear(BOOKS);
+        clear(COMMENTS_BY_BOOK);
+    }
+
+    /**
+     * Возвращает статистику попаданий и промахов по всем кэшам.
+     *
+     * @return статистика кэшей в порядке имен
+     */
+    public List<CacheStatistics> statistics() {
+        return cacheManager.getCacheNames().stream()
+                .sorted()
+                .map(cacheManager::getCache)
+                .filter(CaffeineCache.class::isInstance)
+                .map(CaffeineCache.class::cast)
+                .map(cache -> {
+                    CacheStats stats = cache.getNativeCache().stats();
+                    return new CacheStatistics(cache.getName(), cache.getNativeCache().estimatedSize(),
+                            stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount());
+                })
+                .toList();
+    }
+
+    private void evict(String cacheName, Long key) {
+        Cache cache = key == null ? null : cacheManager.getCache(cacheName);
+        if (cache != null) {
+            new TransactionAwareCacheDecorator(cache).evict(key);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            new TransactionAwareCacheDecorator(cache).clear();
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package org.example.library.service;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.library.model.BookRating;
+import org.example.library.repository.CommentRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Счетчики оценок книг в памяти с периодической записью в таблицу сводок.
+ *
+ * <p>Каждая книга хранит {@link AtomicLongArray} из пяти счетчиков - количество оценок 1..5;
+ * количество отзывов и сумма оценок вычисляются из них. Изменение оценки - одно
+ * неблокирующее увеличение счетчика без обращения к базе и без конкуренции за строку сводки.
+ * Массив занимает около 130 байт на книгу вместе с записью карты (пять {@code LongAdder} -
+ * около 260): частота изменений ограничена фиксацией транзакций, и разнесение
+ * счетчиков по ячейкам не окупается.
+ * Измененные книги помечаются и раз в {@code library.ratings.flush-ms} записываются
+ * в {@code book_ratings} абсолютными значениями одним JDBC-пакетом, поэтому повторная
+ * запись безопасна.</p>
+ *
+ * <p>Счетчики строятся из таблицы комментариев при запуске (до старта веб-сервера),
+ * расхождения таблицы сводок с комментариями при этом исправляются.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RatingCounters implements SmartInitializingSingleton {
+
+    /**
+     * Запись сводки абсолютными значениями.
+     */
+    private static final String UPDATE_SQL = "UPDATE book_ratings SET review_count = ?, rating_sum = ?, "
+            + "stars_1 = ?, stars_2 = ?, stars_3 = ?, stars_4 = ?, stars_5 = ? WHERE books_id = ?";
+
+    /**
+     * Вставка отсутствующей сводки (книга создана до появления сводок).
+     */
+    private static final String INSERT_SQL = "INSERT INTO book_ratings (review_count, rating_sum, "
+            + "stars_1, stars_2, stars_3, stars_4, stars_5, books_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_SQL =
+            "SELECT books_id, stars_1, stars_2, stars_3, stars_4, stars_5 FROM book_ratings";
+
+    private final CommentRepository commentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityVersions entityVersions;
+
+    /**
+     * Счетчики оценок 1..5 по идентификатору книги.
+     */
+    private final ConcurrentHashMap<Long, AtomicLongArray> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Книги, счетчики которых изменились после последней записи.
+     */
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Возвращает текущую сводку книги.
+     *
+     * @param bookId идентификатор книги
+     * @return сводка (пустая, если у книги нет оценок)
+     */
+    public BookRating snapshot(Long bookId) {
+        BookRating rating = new BookRating(bookId);
+        AtomicLongArray stars = counters.get(bookId);
+        if (stars != null) {
+            for (int value = 1; value <= 5; value++) {
+                rating.apply(value, stars.get(value - 1));
+            }
+        }
+        return rating;
+    }
+
+    /**
+     * Прибавляет изменения к счетчикам книг.
+     *
+     * @param changes изменения количества оценок по идентификатору книги
+     */
+    public void add(Collection<BookRating> changes) {
+        for (BookRating change : changes) {
+            AtomicLongArray stars = counters.computeIfAbsent(change.getBookId(), id -> new AtomicLongArray(5));
+            for (int value = 1; value <= 5; value++) {
+                long delta = change.getStars(value);
+                if (delta != 0) {
+                    stars.addAndGet(value - 1, delta);
+                }
+            }
+            // Пометка после изменения: запись, снявшая пометку раньше, увидит его при следующем проходе
+            dirty.add(change.getBookId());
+        }
+    }
+
+    /**
+     * Удаляет счетчики удаленных книг.
+     *
+     * @param bookIds идентификаторы книг
+     */
+    public void remove(Collection<Long> bookIds) {
+        for (Long bookId : bookIds) {
+            counters.remove(bookId);
+            dirty.remove(bookId);
+        }
+    }
+
+    /**
+     * Записывает измененные счетчики в таблицу сводок.
+     *
+     * <p>Сводка, которую не удалось обновить, принадлежит удаленной книге - ее счетчики
+     * удаляются. После записи меняется версия комментариев, чтобы списки с количеством
+     * отзывов не отдавались из кэша клиента с устаревшими значениями.</p>
+     *
+     * <p>Записи сводок не выполняются параллельно (метод {@code synchronized}): иначе
+     * запись, снявшая пометку раньше, могла бы сохранить более старые значения поверх более новых.</p>
+     *
+     * @return количество записанных сводок
+     */
+    @Scheduled(fixedDelayString = "${library.ratings.flush-ms:5000}")
+    public synchronized int flush() {
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+        List<BookRating> rows = new ArrayList<>();
+        for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+            Long bookId = it.next();
+            it.remove();
+            if (counters.containsKey(bookId)) {
+                rows.add(snapshot(bookId));
+            }
+        }
+        int[][] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, rows, rows.size(), this::setValues);
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (updated[0][i] == 0) {
+                missing.add(rows.get(i).getBookId());
+            }
+        }
+        remove(missing);
+        entityVersions.bump(EntityVersions.Kind.COMMENTS);
+        log.debug("Записано сводок оценок: {}", rows.size() - missing.size());
+        return rows.size() - missing.size();
+    }
+
+    /**
+     * Записывает оставшиеся изменения при остановке приложения.
+     */
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Строит счетчики из таблицы комментариев и исправляет расходящиеся сводки.
+     *
+     * <p>Выполняется после создания всех компонентов, но до запуска веб-сервера,
+     * поэтому ни один комментарий не может быть учтен до построения.</p>
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        long started = System.nanoTime();
+        counters.clear();
+        dirty.clear();
+        Map<Long, long[]> comments = countComments();
+        for (Map.Entry<Long, long[]> entry : comments.entrySet()) {
+            counters.put(entry.getKey(), new AtomicLongArray(entry.getValue()));
+        }
+        List<Long> mismatched = findMismatched(comments);
+        if (!mismatched.isEmpty()) {
+            log.warn("Сводки оценок расходились с комментариями для {} книг, исправлено", mismatched.size());
+            repair(mismatched);
+        }
+        log.info("Счетчики оценок построены для {} книг за {} мс", counters.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Проверяет согласованность: записывает изменения и сравнивает таблицу сводок
+     * с оценками, подсчитанными заново по таблице комментариев.
+     *
+     * <p>Предназначена для тестов и диагностики: читает все комментарии.</p>
+     *
+     * @return идентификаторы книг, сводки которых не совпадают с комментариями
+     */
+    public List<Long> findInconsistencies() {
+        flush();
+        return findMismatched(countComments());
+    }
+
+    private Map<Long, long[]> countComments() {
+        Map<Long, long[]> stars = new HashMap<>();
+        for (Object[] row : commentRepository.countRatings()) {
+            int rating = ((Number) row[1]).intValue();
+            stars.computeIfAbsent((Long) row[0], id -> new long[5])[rating - 1] = ((Number) row[2]).longValue();
+        }
+        return stars;
+    }
+
+    /**
+     * Сравнивает строки таблицы сводок с ожидаемыми количествами оценок.
+     * Отсутствие книги в {@code expected} означает, что оценок у нее нет.
+     */
+    private List<Long> findMismatched(Map<Long, long[]> expected) {
+        List<Long> mismatched = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        jdbcTemplate.query(SELECT_SQL, resultSet -> {
+            long bookId = resultSet.getLong(1);
+            seen.add(bookId);
+            long[] values = expected.get(bookId);
+            for (int i = 0; i < 5; i++) {
+                if (resultSet.getLong(2 + i) != (values == null ? 0 : values[i])) {
+                    mismatched.add(bookId);
+                    return;
+                }
+            }
+        });
+        for (Long bookId : expected.keySet()) {
+            if (!seen.contains(bookId)) {
+                mismatched.add(bookId);
+            }
+        }
+        return mismatched;
+    }
+
+    private void repair(List<Long> bookIds) {
+        List<BookRating> rows = bookIds.stream().map(this::snapshot).toList();
+        int[][] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, rows, rows.size(), this::setValues);
+        List<BookRating> missing = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (updated[0][i] == 0) {
+                missing.add(rows.get(i));
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, missing, missing.size(), this::setValues);
+    }
+
+    private void setValues(PreparedStatement statement, BookRating rating) throws SQLException {
+        statement.setLong(1, rating.getReviewCount());
+        statement.setLong(2, rating.getRatingSum());
+        for (int value = 1; value <= 5; value++) {
+            statement.setLong(2 + value, rating.getStars(value));
+        }
+        statement.setLong(8, rating.getBookId());
+    }
+}
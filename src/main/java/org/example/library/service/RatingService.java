@@ -0,0 +1,144 @@
+package org.example.library.service;
+import io.micrometer.core.annotation.Timed;
+import org.example.library.model.BookRating;
+import org.example.library.repository.BookRatingRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+/**
+ * Сервисный слой для сводок оценок книг.
+ *
+ * <p>Сводка {@link BookRating} обновляется инкрементально из {@link CommentService}
+ * при добавлении, изменении и удалении комментариев, поэтому средняя оценка
+ * и гистограмма книги доступны за O(1), без чтения комментариев.</p>
+ *
+ * <p>Изменения оценок применяются к счетчикам в памяти ({@link RatingCounters}) после
+ * фиксации транзакции и записываются в таблицу сводок периодически, поэтому
+ * количество отзывов в списках книг и рейтингах обновляется с этой задержкой.
+ * Строки сводок создаются и удаляются вместе с книгами в их транзакциях.</p>
+ *
+ * Transactional - методы выполняются в транзакции вызывающего сервиса или в своей собственной
+ */
+@Service
+@Timed(value = "library.service", percentiles = {0.5, 0.95, 0.99})
+@RequiredArgsConstructor
+public class RatingService {
+    private final BookRatingRepository bookRatingRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final RatingCounters ratingCounters;
+
+    /**
+     * Пустая сводка новой книги для пакетной вставки через JDBC.
+     */
+    private static final String INSERT_EMPTY_SQL = "INSERT INTO book_ratings (books_id, review_count, rating_sum, "
+            + "stars_1, stars_2, stars_3, stars_4, stars_5) VALUES (?, 0, 0, 0, 0, 0, 0, 0)";
+
+    /**
+     * Получает сводку оценок книги.
+     *
+     * @param bookId идентификатор книги
+     * @return сводка (пустая, если у книги нет оценок)
+     */
+    public BookRating findByBookId(Long bookId) {
+        return ratingCounters.snapshot(bookId);
+    }
+
+    /**
+     * Создает пустую сводку для новой книги.
+     *
+     * <p>Строка создается вместе с книгой, чтобы запись счетчиков
+     * только обновляла существующую строку.</p>
+     *
+     * @param bookId идентификатор книги
+     */
+    @Transactional
+    public void initialize(Long bookId) {
+        if (!bookRatingRepository.existsById(bookId)) {
+            bookRatingRepository.save(new BookRating(bookId));
+        }
+    }
+
+    /**
+     * Создает пустые сводки для нескольких новых книг одним JDBC-пакетом.
+     *
+     * @param bookIds идентификаторы новых книг
+     */
+    @Transactional
+    public void initializeAll(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_EMPTY_SQL, bookIds, bookIds.size(),
+                (statement, bookId) -> statement.setLong(1, bookId));
+    }
+
+    /**
+     * Учитывает новую оценку книги после фиксации текущей транзакции.
+     *
+     * @param bookId идентификатор книги
+     * @param rating оценка от 1 до 5
+     */
+    public void added(Long bookId, int rating) {
+        apply(bookId, rating, 1);
+    }
+
+    /**
+     * Убирает оценку книги из сводки после фиксации текущей транзакции.
+     *
+     * @param bookId идентификатор книги
+     * @param rating оценка от 1 до 5
+     */
+    public void removed(Long bookId, int rating) {
+        apply(bookId, rating, -1);
+    }
+
+    /**
+     * Учитывает изменения, накопленные по нескольким книгам (например, за пакет импорта).
+     *
+     * <p>Изменения применяются к счетчикам только после фиксации транзакции,
+     * при откате они не учитываются.</p>
+     *
+     * @param changes изменения счетчиков по идентификатору книги
+     */
+    public void applyAll(Map<Long, BookRating> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<BookRating> rows = List.copyOf(changes.values());
+        AfterCommit.run(() -> ratingCounters.add(rows));
+    }
+
+    /**
+     * Удаляет сводки книг вместе с книгами одним запросом.
+     *
+     * @param bookIds идентификаторы книг
+     */
+    @Transactional
+    public void deleteByBookIds(Collection<Long> bookIds) {
+        bookRatingRepository.deleteByBookIds(bookIds);
+        List<Long> ids = List.copyOf(bookIds);
+        AfterCommit.run(() -> ratingCounters.remove(ids));
+    }
+
+    /**
+     * Удаляет сводки всех книг авторов вместе с авторами одним запросом.
+     *
+     * @param authorIds идентификаторы авторов
+     */
+    @Transactional
+    public void deleteByAuthorIds(Collection<Long> authorIds) {
+        List<Long> bookIds = bookRatingRepository.findBookIdsByAuthorIds(authorIds);
+        bookRatingRepository.deleteByAuthorIds(authorIds);
+        AfterCommit.run(() -> ratingCounters.remove(bookIds));
+    }
+
+    private void apply(Long bookId, int rating, int delta) {
+        BookRating change = new BookRating(bookId);
+        change.apply(rating, delta);
+        AfterCommit.run(() -> ratingCounters.add(List.of(change)));
+    }
+}
@@ -0,0 +1,580 @@
+package org.example.library.service;
+import org.example.library.dto.AuthorOption;
+import org.example.library.dto.BookIndexRow;
+import org.example.library.dto.CommentIndexRow;
+import org.example.library.dto.FacetCount;
+import org.example.library.dto.SearchHit;
+import org.example.library.repository.AuthorRepository;
+import org.example.library.repository.BookRepository;
+import org.example.library.repository.CommentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Полнотекстовый поиск книг по названию, жанру, имени автора и именам читателей.
+ *
+ * <p>Индекс хранится в памяти как обратный: каждому слову соответствуют книги, в которых
+ * оно встречается, с весом поля (название весит больше жанра). Слова упорядочены,
+ * поэтому поиск по началу слова - это просмотр соседних ключей, а не перебор таблицы
+ * запросом {@code LIKE '%...%'}.</p>
+ *
+ * <p>Вместе с индексом поддерживаются счетчики фасетов списка книг: количество книг
+ * по жанрам и по авторам, в том числе для каждой пары жанр-автор. Счетчики меняются
+ * вместе с индексом, поэтому страница списка не выполняет {@code GROUP BY}.</p>
+ *
+ * <p>Индекс строится из базы данных при запуске и затем обновляется сервисами при
+ * сохранении и удалении записей. Изменения применяются после фиксации транзакции,
+ * поэтому откаченные записи в индекс не попадают.</p>
+ *
+ * Component - класс регистрируется как бин и внедряется в сервисы
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchIndex {
+    /**
+     * Вес слова из названия книги.
+     */
+    static final float NAME_WEIGHT = 3;
+
+    /**
+     * Вес слова из имени автора.
+     */
+    static final float AUTHOR_WEIGHT = 2;
+
+    /**
+     * Вес слова из жанра.
+     */
+    static final float GENRE_WEIGHT = 1;
+
+    /**
+     * Вес слова из имени читателя (за каждый комментарий).
+     */
+    static final float READER_WEIGHT = 0.5f;
+
+    /**
+     * Множитель релевантности, если слово запроса совпало только с началом слова книги.
+     */
+    static final double PREFIX_FACTOR = 0.5;
+
+    /**
+     * Слово - непрерывная последовательность букв (кириллица, латиница) и цифр.
+     */
+    private static final Pattern TOKEN = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    private final AuthorRepository authorRepository;
+    private final BookRepository bookRepository;
+    private final CommentRepository commentRepository;
+
+    /**
+     * Поиск выполняется под блокировкой чтения и не мешает другим поискам,
+     * изменения индекса - под блокировкой записи.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Обратный индекс: слово - вес слова в каждой книге, где оно встречается.
+     */
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+
+    /**
+     * Проиндексированные книги по идентификатору.
+     */
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    /**
+     * Имена авторов: книга хранит только идентификатор автора.
+     */
+    private final Map<Long, String> authorNames = new HashMap<>();
+
+    /**
+     * Книги каждого автора - для переиндексации при переименовании и удалении автора.
+     */
+    private final Map<Long, Set<Long>> booksByAuthor = new HashMap<>();
+
+    /**
+     * Книга и имя читателя каждого проиндексированного комментария: при удалении
+     * или изменении комментария из книги вычитаются слова только этого читателя.
+     */
+    private final Map<Long, IndexedComment> comments = new HashMap<>();
+
+    /**
+     * Количество книг по жанру и автору: жанр - идентификатор автора - количество.
+     * Книги без жанра не учитываются.
+     */
+    private final Map<String, Map<Long, Integer>> genreAuthorCounts = new HashMap<>();
+
+    /**
+     * Количество книг по жанру.
+     */
+    private final Map<String, Integer> genreCounts = new HashMap<>();
+
+    /**
+     * Количество книг по автору.
+     */
+    private final Map<Long, Integer> authorCounts = new HashMap<>();
+
+    /**
+     * Разбивает текст на слова для индекса и запроса.
+     *
+     * <p>Слова приводятся к нижнему регистру, буква «ё» заменяется на «е».</p>
+     *
+     * @param text исходный текст (может быть {@code null})
+     * @return слова в порядке появления, с повторами
+     */
+    static List<String> tokens(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        Matcher matcher = TOKEN.matcher(text.toLowerCase(Locale.ROOT).replace('ё', 'е'));
+        List<String> tokens = new ArrayList<>();
+        while (matcher.find()) {
+            tokens.add(matcher.group());
+        }
+        return tokens;
+    }
+
+    /**
+     * Ищет книги, в которых встречаются все слова запроса.
+     *
+     * <p>Каждое слово запроса совпадает с целым словом книги или с его началом
+     * (с меньшим весом). Релевантность книги - сумма по словам запроса
+     * {@code idf * ln(1 + вес)}, где вес учитывает поле и количество повторений,
+     * а {@code idf} понижает слова, встречающиеся во многих книгах.</p>
+     *
+     * @param query текст запроса
+     * @param limit максимальное количество результатов
+     * @return книги в порядке убывания релевантности (может быть пустым)
+     */
+    public List<SearchHit> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(tokens(query));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String term : terms) {
+                Map<Long, Double> termScores = score(term);
+                if (scores != null) {
+                    // Книга должна содержать все слова запроса: оставляем пересечение и суммируем
+                    termScores.keySet().retainAll(scores.keySet());
+                    for (Map.Entry<Long, Double> entry : termScores.entrySet()) {
+                        entry.setValue(entry.getValue() + scores.get(entry.getKey()));
+                    }
+                }
+                scores = termScores;
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(entry -> toHit(documents.get(entry.getKey()), entry.getValue()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает количество проиндексированных книг.
+     *
+     * @return количество книг в индексе
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает жанры с количеством книг, начиная с самых многочисленных.
+     *
+     * @param authorId если указан - считаются только книги этого автора
+     * @param limit максимальное количество жанров
+     * @return значения фасета жанров
+     */
+    public List<FacetCount> genreFacets(Long authorId, int limit) {
+        lock.readLock().lock();
+        try {
+            Stream<Map.Entry<String, Integer>> counts = authorId == null
+                    ? genreCounts.entrySet().stream()
+                    : genreAuthorCounts.entrySet().stream()
+                            .filter(entry -> entry.getValue().containsKey(authorId))
+                            .map(entry -> Map.entry(entry.getKey(), entry.getValue().get(authorId)));
+            return top(counts.map(entry -> new FacetCount(entry.getKey(), entry.getKey(), entry.getValue())), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает авторов с количеством книг, начиная с самых плодовитых.
+     *
+     * @param genre если указан - считаются только книги этого жанра
+     * @param limit максимальное количество авторов
+     * @return значения фасета авторов
+     */
+    public List<FacetCount> authorFacets(String genre, int limit) {
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> counts = genre == null ? authorCounts : genreAuthorCounts.getOrDefault(genre, Map.of());
+            return top(counts.entrySet().stream().map(entry -> new FacetCount(entry.getKey().toString(),
+                    authorNames.getOrDefault(entry.getKey(), entry.getKey().toString()), entry.getValue())), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Добавляет или обновляет авторов; книги переименованного автора переиндексируются.
+     *
+     * @param authors идентификаторы и имена авторов
+     */
+    public void indexAuthors(Collection<AuthorOption> authors) {
+        afterCommit(() -> authors.forEach(author -> putAuthor(author.id(), author.name())));
+    }
+
+    /**
+     * Добавляет или обновляет книги.
+     *
+     * @param books поля книг
+     */
+    public void indexBooks(Collection<BookIndexRow> books) {
+        afterCommit(() -> books.forEach(this::putBook));
+    }
+
+    /**
+     * Добавляет или обновляет комментарии (имена читателей).
+     *
+     * @param comments поля комментариев
+     */
+    public void indexComments(Collection<CommentIndexRow> comments) {
+        afterCommit(() -> comments.forEach(this::putComment));
+    }
+
+    /**
+     * Удаляет авторов вместе с их книгами.
+     *
+     * @param authorIds идентификаторы авторов
+     */
+    public void removeAuthors(Collection<Long> authorIds) {
+        afterCommit(() -> authorIds.forEach(authorId -> {
+            authorNames.remove(authorId);
+            Set<Long> bookIds = booksByAuthor.get(authorId);
+            if (bookIds != null) {
+                List.copyOf(bookIds).forEach(this::removeBook);
+            }
+        }));
+    }
+
+    /**
+     * Удаляет книги вместе с их комментариями.
+     *
+     * @param bookIds идентификаторы книг
+     */
+    public void removeBooks(Collection<Long> bookIds) {
+        afterCommit(() -> bookIds.forEach(this::removeBook));
+    }
+
+    /**
+     * Удаляет комментарии.
+     *
+     * @param commentIds идентификаторы комментариев
+     */
+    public void removeComments(Collection<Long> commentIds) {
+        afterCommit(() -> {
+            for (Long commentId : commentIds) {
+                IndexedComment comment = comments.remove(commentId);
+                if (comment != null) {
+                    removeReader(documents.get(comment.bookId()), commentId, comment.reader());
+                }
+            }
+        });
+    }
+
+    /**
+     * Строит индекс заново по данным из базы после запуска приложения.
+     *
+     * <p>Блокировка записи удерживается до конца построения: изменения, зафиксированные
+     * во время чтения, ждут ее и применяются поверх построенного индекса.</p>
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            authorNames.clear();
+            booksByAuthor.clear();
+            comments.clear();
+            genreAuthorCounts.clear();
+            genreCounts.clear();
+            authorCounts.clear();
+            try (Stream<AuthorOption> authors = authorRepository.streamOptions()) {
+                authors.forEach(author -> authorNames.put(author.id(), author.name()));
+            }
+            try (Stream<BookIndexRow> books = bookRepository.streamIndexRows()) {
+                books.forEach(this::putBook);
+            }
+            try (Stream<CommentIndexRow> comments = commentRepository.streamIndexRows()) {
+                comments.forEach(this::putComment);
+            }
+            log.info("Поисковый индекс построен: {} книг, {} слов за {} мс",
+                    documents.size(), postings.size(), (System.nanoTime() - started) / 1_000_000);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> score(String term) {
+        Map<Long, Double> scores = new HashMap<>();
+        int total = documents.size();
+        for (Map.Entry<String, Map<Long, Float>> entry
+                : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+            double idf = Math.log(1 + (double) total / entry.getValue().size());
+            double factor = entry.getKey().equals(term) ? 1 : PREFIX_FACTOR;
+            entry.getValue().forEach((bookId, weight) ->
+                    scores.merge(bookId, factor * idf * Math.log1p(weight), Math::max));
+        }
+        return scores;
+    }
+
+    private SearchHit toHit(Document document, double score) {
+        return new SearchHit(document.id, document.name, document.genre,
+                authorNames.get(document.authorId), score);
+    }
+
+    private void putAuthor(Long authorId, String name) {
+        String previous = authorNames.put(authorId, name);
+        Set<Long> bookIds = booksByAuthor.get(authorId);
+        if (bookIds != null && !name.equals(previous)) {
+            bookIds.forEach(bookId -> reindexFields(documents.get(bookId)));
+        }
+    }
+
+    private void putBook(BookIndexRow row) {
+        Document document = documents.computeIfAbsent(row.id(), Document::new);
+        if (document.authorId != null) {
+            count(document, -1);
+            if (!document.authorId.equals(row.authorId())) {
+                unlinkAuthor(document);
+            }
+        }
+        document.name = row.name();
+        document.genre = row.genre();
+        document.authorId = row.authorId();
+        count(document, 1);
+        booksByAuthor.computeIfAbsent(row.authorId(), id -> new HashSet<>()).add(row.id());
+        reindexFields(document);
+    }
+
+    /**
+     * Учитывает имя читателя в книге комментария. Меняются только записи индекса
+     * для слов этого имени, остальные комментарии книги не перебираются.
+     */
+    private void putComment(CommentIndexRow row) {
+        IndexedComment previous = comments.get(row.id());
+        if (previous != null) {
+            if (previous.bookId().equals(row.bookId()) && previous.reader().equals(row.reader())) {
+                return;
+            }
+            comments.remove(row.id());
+            removeReader(documents.get(previous.bookId()), row.id(), previous.reader());
+        }
+        Document document = documents.get(row.bookId());
+        if (document != null) {
+            comments.put(row.id(), new IndexedComment(row.bookId(), row.reader()));
+            document.commentIds.add(row.id());
+            Set<String> changed = new HashSet<>();
+            for (String token : tokens(row.reader())) {
+                document.readerTerms.merge(token, 1, Integer::sum);
+                changed.add(token);
+            }
+            changed.forEach(term -> updatePosting(document, term));
+        }
+    }
+
+    /**
+     * Вычитает слова имени читателя из книги удаленного или перенесенного комментария.
+     */
+    private void removeReader(Document document, Long commentId, String reader) {
+        if (document == null) {
+            return;
+        }
+        document.commentIds.remove(commentId);
+        Set<String> changed = new HashSet<>();
+        for (String token : tokens(reader)) {
+            document.readerTerms.computeIfPresent(token, (term, count) -> count == 1 ? null : count - 1);
+            changed.add(token);
+        }
+        changed.forEach(term -> updatePosting(document, term));
+    }
+
+    private void removeBook(Long bookId) {
+        Document document = documents.remove(bookId);
+        if (document == null) {
+            return;
+        }
+        Set<String> terms = new HashSet<>(document.fieldTerms.keySet());
+        terms.addAll(document.readerTerms.keySet());
+        for (String term : terms) {
+            removePosting(term, document.id);
+        }
+        unlinkAuthor(document);
+        count(document, -1);
+        document.commentIds.forEach(comments::remove);
+    }
+
+    /**
+     * Учитывает книгу в счетчиках фасетов ({@code delta = 1}) или убирает ее ({@code delta = -1}).
+     */
+    private void count(Document document, int delta) {
+        adjust(authorCounts, document.authorId, delta);
+        if (document.genre != null && !document.genre.isBlank()) {
+            adjust(genreCounts, document.genre, delta);
+            Map<Long, Integer> byAuthor = genreAuthorCounts.computeIfAbsent(document.genre, genre -> new HashMap<>());
+            adjust(byAuthor, document.authorId, delta);
+            if (byAuthor.isEmpty()) {
+                genreAuthorCounts.remove(document.genre);
+            }
+        }
+    }
+
+    private static <K> void adjust(Map<K, Integer> counts, K key, int delta) {
+        counts.merge(key, delta, (current, change) -> current + change == 0 ? null : current + change);
+    }
+
+    private static List<FacetCount> top(Stream<FacetCount> facets, int limit) {
+        return facets
+                .sorted(Comparator.comparingLong(FacetCount::count).reversed().thenComparing(FacetCount::label))
+                .limit(limit)
+                .toList();
+    }
+
+    private void unlinkAuthor(Document document) {
+        Set<Long> bookIds = booksByAuthor.get(document.authorId);
+        if (bookIds != null) {
+            bookIds.remove(document.id);
+            if (bookIds.isEmpty()) {
+                booksByAuthor.remove(document.authorId);
+            }
+        }
+    }
+
+    /**
+     * Пересчитывает слова названия, жанра и имени автора книги и обновляет записи
+     * обратного индекса для слов, которые были или стали частью этих полей.
+     * Слова имен читателей хранятся счетчиками и не пересчитываются.
+     */
+    private void reindexFields(Document document) {
+        Map<String, Float> terms = new HashMap<>();
+        addTerms(terms, document.name, NAME_WEIGHT);
+        addTerms(terms, authorNames.get(document.authorId), AUTHOR_WEIGHT);
+        addTerms(terms, document.genre, GENRE_WEIGHT);
+        Set<String> changed = new HashSet<>(document.fieldTerms.keySet());
+        changed.addAll(terms.keySet());
+        document.fieldTerms = terms;
+        changed.forEach(term -> updatePosting(document, term));
+    }
+
+    /**
+     * Записывает в обратный индекс текущий вес слова в книге: вес полей плюс
+     * {@link #READER_WEIGHT} за каждое вхождение слова в имена читателей.
+     */
+    private void updatePosting(Document document, String term) {
+        float weight = document.fieldTerms.getOrDefault(term, 0f)
+                + READER_WEIGHT * document.readerTerms.getOrDefault(term, 0);
+        if (weight > 0) {
+            postings.computeIfAbsent(term, t -> new HashMap<>()).put(document.id, weight);
+        } else {
+            removePosting(term, document.id);
+        }
+    }
+
+    private void removePosting(String term, Long bookId) {
+        Map<Long, Float> books = postings.get(term);
+        if (books != null) {
+            books.remove(bookId);
+            if (books.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Float> terms, String text, float weight) {
+        for (String token : tokens(text)) {
+            terms.merge(token, weight, Float::sum);
+        }
+    }
+
+    /**
+     * Применяет изменение индекса после фиксации текущей транзакции
+     * или сразу, если транзакции нет.
+     */
+    private void afterCommit(Runnable update) {
+        AfterCommit.run(() -> write(update));
+    }
+
+    private void write(Runnable update) {
+        lock.writeLock().lock();
+        try {
+            update.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Проиндексированный комментарий: книга и имя читателя.
+     */
+    private record IndexedComment(Long bookId, String reader) {
+    }
+
+    /**
+     * Проиндексированная книга: исходные поля, слова полей с весами
+     * и количество вхождений каждого слова в имена читателей ее комментариев.
+     */
+    private static final class Document {
+        private final Long id;
+        private String name;
+        private String genre;
+        private Long authorId;
+        private Map<String, Float> fieldTerms = Map.of();
+        private final Map<String, Integer> readerTerms = new HashMap<>();
+        private final Set<Long> commentIds = new HashSet<>();
+
+        private Document(Long id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.library.service;
+import org.example.library.dto.RegionStatistics;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Статистика регионов кэша второго уровня Hibernate.
+ *
+ * <p>Счетчики собираются Hibernate при {@code hibernate.generate_statistics=true};
+ * если сбор выключен, все значения равны нулю.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheStatistics {
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Возвращает попадания, промахи и записи по каждому региону.
+     *
+     * @return статистика регионов в порядке имен
+     */
+    public List<RegionStatistics> regions() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> {
+                    CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+                    long hits = stats == null ? 0 : stats.getHitCount();
+                    long misses = stats == null ? 0 : stats.getMissCount();
+                    long puts = stats == null ? 0 : stats.getPutCount();
+                    double ratio = hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+                    return new RegionStatistics(region, hits, misses, puts, ratio);
+                })
+                .toList();
+    }
+}
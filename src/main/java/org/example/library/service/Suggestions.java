@@ -0,0 +1,60 @@
+package org.example.library.service;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Поиск по префиксу для полей ввода с подсказками.
+ *
+ * <p>Запрос выполняется регистрозависимым {@code LIKE 'префикс%'}, который база данных
+ * отвечает по индексу. Чтобы пользователю не приходилось набирать заглавную букву,
+ * кроме введенного текста проверяется вариант с заглавной первой буквой.</p>
+ */
+final class Suggestions {
+
+    /**
+     * Максимальная длина префикса: длиннее не бывает названий книг.
+     */
+    private static final int MAX_LENGTH = 200;
+
+    private Suggestions() {
+    }
+
+    /**
+     * Выполняет поиск по введенному тексту и по его варианту с заглавной первой буквой.
+     *
+     * @param query введенный пользователем текст (может быть {@code null})
+     * @param limit максимальное количество результатов
+     * @param search поиск по префиксу (не более {@code limit} результатов)
+     * @param <T> тип подсказки
+     * @return не более {@code limit} подсказок без повторов
+     */
+    static <T> List<T> find(String query, int limit, Function<String, List<T>> search) {
+        Set<T> result = new LinkedHashSet<>();
+        for (String prefix : variants(query)) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.addAll(search.apply(prefix));
+        }
+        return new ArrayList<>(result).subList(0, Math.min(limit, result.size()));
+    }
+
+    private static Set<String> variants(String query) {
+        Set<String> variants = new LinkedHashSet<>();
+        if (query == null) {
+            return variants;
+        }
+        String prefix = query.strip();
+        if (prefix.length() > MAX_LENGTH) {
+            prefix = prefix.substring(0, MAX_LENGTH);
+        }
+        if (!prefix.isEmpty()) {
+            variants.add(prefix);
+            variants.add(Character.toUpperCase(prefix.charAt(0)) + prefix.substring(1));
+        }
+        return variants;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Живая лента комментариев на странице книги.
+ *
+ * Таблица с атрибутом data-stream-url подписывается на события Server-Sent Events
+ * и добавляет новые комментарии в начало, сохраняя не более data-limit строк.
+ * После разрыва соединения EventSource переподключается сам.
+ */
+document.querySelectorAll('table[data-stream-url]').forEach(function (table) {
+    var body = table.tBodies[0];
+    var limit = parseInt(table.dataset.limit, 10);
+    var empty = document.getElementById(table.dataset.empty);
+    var source = new EventSource(table.dataset.streamUrl);
+
+    function cell(text) {
+        var td = document.createElement('td');
+        td.textContent = text;
+        return td;
+    }
+
+    source.addEventListener('comment', function (event) {
+        var comment = JSON.parse(event.data);
+        var row = document.createElement('tr');
+        row.appendChild(cell(comment.reader));
+        row.appendChild(cell(comment.rating + '/5'));
+        body.insertBefore(row, body.firstChild);
+        while (body.rows.length > limit) {
+            body.deleteRow(body.rows.length - 1);
+        }
+        table.hidden = false;
+        if (empty) {
+            empty.hidden = true;
+        }
+    });
+});
@@ -0,0 +1,53 @@
+/*
+ * Поле ввода с подсказками для выбора автора или книги в формах.
+ *
+ * Поле с атрибутом data-suggest-url запрашивает варианты у JSON API по первым буквам
+ * и записывает идентификатор выбранного варианта в скрытое поле, указанное в data-target.
+ * Если текст не совпадает ни с одной подсказкой, форма не отправляется.
+ */
+document.querySelectorAll('input[data-suggest-url]').forEach(function (input) {
+    var hidden = document.getElementById(input.dataset.target);
+    var list = document.getElementById(input.getAttribute('list'));
+    var options = {};
+    var timer = null;
+
+    if (hidden.value) {
+        options[input.value] = hidden.value;
+    }
+
+    function label(item) {
+        return item.authorName ? item.name + ' (' + item.authorName + ')' : item.name;
+    }
+
+    function sync() {
+        var id = options[input.value];
+        hidden.value = id !== undefined ? id : '';
+        input.setCustomValidity(hidden.value ? '' : 'Выберите значение из списка подсказок');
+    }
+
+    function load(query) {
+        fetch(input.dataset.suggestUrl + '?q=' + encodeURIComponent(query))
+            .then(function (response) { return response.json(); })
+            .then(function (items) {
+                list.innerHTML = '';
+                options = {};
+                items.forEach(function (item) {
+                    var option = document.createElement('option');
+                    option.value = label(item);
+                    list.appendChild(option);
+                    options[option.value] = item.id;
+                });
+                sync();
+            });
+    }
+
+    input.addEventListener('input', function () {
+        sync();
+        clearTimeout(timer);
+        var query = input.value.trim();
+        if (query) {
+            timer = setTimeout(function () { load(query); }, 200);
+        }
+    });
+    sync();
+});
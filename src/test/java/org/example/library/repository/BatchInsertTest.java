@@ -0,0 +1,108 @@
+package org.example.library.repository;
+import org.example.library.model.Book;
+import org.example.library.model.Comment;
+import org.hibernate.Session;
+import org.hibernate.SessionEventListener;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет пакетную вставку: идентификаторы выделяются из последовательностей блоками
+ * ({@code library.id.allocation_size}), а INSERT отправляются пакетами JDBC по
+ * {@code hibernate.jdbc.batch_size} строк.
+ *
+ * <p>Статистика фабрики сессий не считает пакеты (выражение INSERT подготавливается
+ * один раз на таблицу и переиспользуется), поэтому вызовы {@code executeBatch} считает
+ * слушатель событий сессии - тот же, на котором строится журнал статистики сессии Hibernate.
+ * Идентификаторы выделяются раньше, при {@code persist}, и считаются по подготовленным
+ * выражениям отдельно от вставки.</p>
+ */
+@DataJpaTest
+class BatchInsertTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int batchSize;
+
+    @Value("${spring.jpa.properties.library.id.allocation_size}")
+    private int allocationSize;
+
+    private Statistics statistics;
+
+    private final AtomicInteger batches = new AtomicInteger();
+
+    private int created;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        entityManager.getEntityManager().unwrap(Session.class).addEventListeners(new SessionEventListener() {
+            @Override
+            public void jdbcExecuteBatchStart() {
+                batches.incrementAndGet();
+            }
+        });
+    }
+
+    @Test
+    void insertsGoOutInBatches() {
+        int count = 2 * batchSize + 7;
+        Book book = createBook();
+        entityManager.flush();
+        statistics.clear();
+
+        List<Comment> comments = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            comments.add(TestCatalog.persistComment(entityManager, book, 1 + i % 5));
+        }
+        long sequenceCalls = statistics.getPrepareStatementCount();
+        statistics.clear();
+        batches.set(0);
+        entityManager.flush();
+
+        assertThat(comments).allSatisfy(comment -> assertThat(comment.getId()).isNotNull());
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(count);
+        assertThat(batches.get()).isEqualTo(ceilDiv(count, batchSize));
+        assertThat(sequenceCalls).isLessThanOrEqualTo(ceilDiv(count, allocationSize) + 1);
+    }
+
+    @Test
+    void interleavedInsertsAreOrderedIntoBatchesPerTable() {
+        int count = batchSize + 1;
+        statistics.clear();
+        for (int i = 0; i < count; i++) {
+            // Автор, книга и комментарий вперемешку: order_inserts группирует их по таблицам
+            TestCatalog.persistComment(entityManager, createBook(), 5);
+        }
+        long sequenceCalls = statistics.getPrepareStatementCount();
+        statistics.clear();
+        batches.set(0);
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(3L * count);
+        assertThat(batches.get()).isEqualTo(3 * ceilDiv(count, batchSize));
+        assertThat(sequenceCalls).isLessThanOrEqualTo(3 * (ceilDiv(count, allocationSize) + 1));
+    }
+
+    private Book createBook() {
+        return TestCatalog.persistBook(entityManager, created++, "Книга");
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.library.repository;
+import org.example.library.model.Book;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет, что запросы страниц списков книг и комментариев выполняются фиксированным
+ * количеством SQL-выражений независимо от количества строк (нет запроса на каждую строку
+ * за автором книги или книгой комментария).
+ *
+ * <p>Перед каждым измерением контекст персистентности и кэш второго уровня очищаются,
+ * поэтому каждое обращение к незагруженной связи выполнило бы отдельный SELECT.</p>
+ */
+@DataJpaTest
+class ListQueryStatementCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private Statistics statistics;
+
+    private int created;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void bookListRunsSameStatementsForAnyRowCount() {
+        createBooks(3);
+        long few = statements(() -> bookRepository.findAllWithAuthor()
+                .forEach(book -> book.getAuthor().getName()));
+        createBooks(30);
+        long many = statements(() -> bookRepository.findAllWithAuthor()
+                .forEach(book -> book.getAuthor().getName()));
+
+        assertThat(few).isEqualTo(1);
+        assertThat(many).isEqualTo(few);
+    }
+
+    @Test
+    void commentListRunsSameStatementsForAnyRowCount() {
+        createBooks(3);
+        long few = statements(() -> commentRepository.findAllWithBookAndAuthor()
+                .forEach(comment -> comment.getBook().getAuthor().getName()));
+        createBooks(30);
+        long many = statements(() -> commentRepository.findAllWithBookAndAuthor()
+                .forEach(comment -> comment.getBook().getAuthor().getName()));
+
+        assertThat(few).isEqualTo(1);
+        assertThat(many).isEqualTo(few);
+    }
+
+    @Test
+    void listPagesRunOneStatementPerPage() {
+        createBooks(30);
+        PageRequest page = PageRequest.of(0, 20, Sort.by("id"));
+
+        assertThat(statements(() -> bookRepository.findRows(page).forEach(row -> row.authorName())))
+                .isEqualTo(1);
+        assertThat(statements(() -> commentRepository.findRows(page).forEach(row -> row.authorName())))
+                .isEqualTo(1);
+    }
+
+    /**
+     * Создает книги, у каждой свой автор и два комментария.
+     */
+    private void createBooks(int count) {
+        for (int i = 0; i < count; i++) {
+            Book book = TestCatalog.persistBook(entityManager, created, "Книга " + created);
+            TestCatalog.persistComment(entityManager, book, 4);
+            TestCatalog.persistComment(entityManager, book, 5);
+            created++;
+        }
+        entityManager.flush();
+    }
+
+    /**
+     * Выполняет действие с пустым контекстом персистентности и кэшем второго уровня
+     * и возвращает количество подготовленных SQL-выражений.
+     */
+    private long statements(Runnable action) {
+        entityManager.clear();
+        entityManager.getEntityManager().getEntityManagerFactory().getCache().evictAll();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
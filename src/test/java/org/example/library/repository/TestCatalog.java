@@ -0,0 +1,63 @@
+package org.example.library.repository;
+import org.example.library.model.Author;
+import org.example.library.model.Book;
+import org.example.library.model.Comment;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+/**
+ * Тестовые данные каталога для тестов репозиториев.
+ */
+final class TestCatalog {
+
+    private TestCatalog() {
+    }
+
+    /**
+     * Сохраняет книгу с собственным автором. Имя автора строится из номера,
+     * поэтому авторы с разными номерами не совпадают.
+     *
+     * @param entityManager контекст персистентности теста
+     * @param index номер автора
+     * @param name название книги
+     * @return сохраненная (еще не сброшенная в базу) книга
+     */
+    static Book persistBook(TestEntityManager entityManager, int index, String name) {
+        Author author = new Author();
+        author.setName("Автор " + letters(index));
+        entityManager.persist(author);
+        Book book = new Book();
+        book.setName(name);
+        book.setAuthor(author);
+        entityManager.persist(book);
+        return book;
+    }
+
+    /**
+     * Сохраняет комментарий к книге.
+     *
+     * @param entityManager контекст персистентности теста
+     * @param book книга
+     * @param rating оценка от 1 до 5
+     * @return сохраненный (еще не сброшенный в базу) комментарий
+     */
+    static Comment persistComment(TestEntityManager entityManager, Book book, int rating) {
+        Comment comment = new Comment();
+        comment.setReader("Читатель");
+        comment.setRating(rating);
+        comment.setBook(book);
+        entityManager.persist(comment);
+        return comment;
+    }
+
+    /**
+     * Имя из букв: ограничение {@code @Pattern} имен авторов и читателей не допускает цифр.
+     */
+    static String letters(int index) {
+        StringBuilder name = new StringBuilder();
+        do {
+            name.append((char) ('а' + index % 32));
+            index /= 32;
+        } while (index > 0);
+        return name.toString();
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.library.service;
+import org.example.library.model.Author;
+import org.example.library.model.Book;
+import org.example.library.model.Comment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет счетчики оценок под конкурентной нагрузкой: несколько потоков добавляют,
+ * переносят между книгами и удаляют комментарии одних и тех же книг, пока отдельный
+ * поток постоянно записывает счетчики. После записи оставшихся изменений таблица
+ * сводок и счетчики в памяти должны совпадать с оценками в таблице комментариев.
+ */
+@SpringBootTest
+class RatingCountersConcurrencyTest {
+    private static final int BOOKS = 6;
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 150;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private RatingCounters ratingCounters;
+
+    private final List<Book> books = new ArrayList<>();
+
+    private Author author;
+
+    /**
+     * Удаляет автора вместе с его книгами и комментариями, чтобы не оставлять данных
+     * в общем для тестов контексте.
+     */
+    @AfterEach
+    void tearDown() {
+        if (author != null) {
+            authorService.deleteById(author.getId());
+        }
+    }
+
+    @Test
+    void countersMatchCommentsAfterConcurrentChanges() throws Exception {
+        Author newAuthor = new Author();
+        newAuthor.setName("Автор Счетчиков");
+        author = authorService.save(newAuthor);
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = new Book();
+            book.setName("Книга " + i);
+            book.setAuthor(author);
+            books.add(bookService.save(book));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        try {
+            Future<?> flusher = executor.submit(() -> {
+                while (running.get()) {
+                    ratingCounters.flush();
+                }
+            });
+            List<Future<?>> workers = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                Random random = new Random(thread);
+                workers.add(executor.submit(() -> change(random)));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            running.set(false);
+            flusher.get();
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+
+        assertThat(ratingCounters.findInconsistencies()).isEmpty();
+        for (Book book : books) {
+            List<Comment> comments = commentService.findByBookId(book.getId());
+            assertThat(ratingCounters.snapshot(book.getId()).getReviewCount()).isEqualTo(comments.size());
+            assertThat(ratingCounters.snapshot(book.getId()).getRatingSum())
+                    .isEqualTo(comments.stream().mapToLong(Comment::getRating).sum());
+        }
+    }
+
+    /**
+     * Выполняет случайную последовательность изменений комментариев одного потока.
+     * Поток меняет только свои комментарии, но книги у всех потоков общие.
+     */
+    private void change(Random random) {
+        List<Long> own = new ArrayList<>();
+        for (int i = 0; i < OPERATIONS; i++) {
+            int operation = own.isEmpty() ? 0 : random.nextInt(8);
+            switch (operation) {
+                case 0, 1, 2 -> own.add(commentService.save(newComment(random)).getId());
+                case 3 -> own.addAll(commentService.saveAll(
+                        List.of(newComment(random), newComment(random), newComment(random)))
+                        .stream().map(Comment::getId).toList());
+                case 4, 5 -> {
+                    Comment moved = newComment(random);
+                    moved.setId(own.get(random.nextInt(own.size())));
+                    commentService.save(moved);
+                }
+                case 6 -> commentService.deleteById(own.remove(random.nextInt(own.size())));
+                default -> {
+                    List<Long> removed = new ArrayList<>();
+                    for (int k = 0; k < 2 && !own.isEmpty(); k++) {
+                        removed.add(own.remove(random.nextInt(own.size())));
+                    }
+                    commentService.deleteAll(removed);
+                }
+            }
+        }
+    }
+
+    private Comment newComment(Random random) {
+        Comment comment = new Comment();
+        comment.setReader("Читатель");
+        comment.setRating(1 + random.nextInt(5));
+        comment.setBook(books.get(random.nextInt(books.size())));
+        return comment;
+    }
+}